@@ -0,0 +1,45 @@
+import java.io.IOException;
+
+// Runs the analysis of a video: reads the colors of the left and right pixel (probe 0 and 1) from a FrameSource,
+// classifies them with PixelClassifier, and gives them to a DelayMatcher in frame order.
+// The frames are read WINDOW frames at a time, so memory use does not depend on the length of the video,
+// and every program (Main, WaitForNext, OnlyPrintDelays, Batch, RawVideo, Watch) analyzes frames the same way.
+public class AnalysisEngine {
+    // Amount of frames read from the source at a time.
+    static final int WINDOW = 256;
+
+    // Receives the colors of all probes in a frame, for analyses that need more than the classified colors.
+    public interface ProbeListener {
+        // rgbs[offset + p] is the color of probe p in the frame, as a packed RGB int.
+        void accept(int frame, int[] rgbs, int offset);
+    }
+
+    // Analyzes all frames of the source. Frame numbers start at 1. Returns the amount of frames analyzed.
+    public static int run(FrameSource source, DelayMatcher matcher) throws IOException {
+        return runProbes(source, (frame, rgbs, offset) -> {
+            byte colorLeft = PixelClassifier.classify(rgbs[offset]);
+            byte colorRight = PixelClassifier.classify(rgbs[offset + 1]);
+            matcher.accept(frame, colorLeft, colorRight);
+        });
+    }
+
+    // Gives the colors of the probes in all frames of the source to the listener, without classifying them.
+    public static int runProbes(FrameSource source, ProbeListener listener) throws IOException {
+        int probeCount = source.getProbeCount();
+        int[] rgbs = new int[WINDOW * probeCount];
+        int frame = 1;
+        int count;
+        long start = Profiler.start();
+        while ((count = source.read(rgbs, WINDOW)) > 0) {
+            Profiler.READ_FRAMES.record(start, count, 0);
+            start = Profiler.start();
+            for (int i = 0; i < count; i++) {
+                listener.accept(frame, rgbs, i * probeCount);
+                frame++;
+            }
+            Profiler.ANALYZE.record(start, count, 0);
+            start = Profiler.start();
+        }
+        return frame - 1;
+    }
+}
\ No newline at end of file
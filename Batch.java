@@ -0,0 +1,184 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Analyzes several runs (folders with frames, or frame containers made by PackFrames) in one go,
+// and prints a short summary per run plus statistics for all delays of each scenario pooled together.
+// Several runs are analyzed at the same time, so a whole test campaign only needs one JVM start.
+//
+// The scenario of a run is its name without the run number at the end, so "zoom_1", "zoom_2" and "zoom 3"
+// all belong to scenario "zoom". Runs are analyzed the same way as "Main <folder> stream".
+
+// To analyze data/zoom_1, data/zoom_2 and data/qtox_1, run "Batch zoom_1 zoom_2 qtox_1" (after compiling).
+// Arguments can also be glob patterns within the data folder, for example "Batch zoom_* qtox_*".
+public class Batch {
+    public static void main(String[] args) throws IOException, InterruptedException {
+
+        // --- SETTINGS, TO BE CHANGED BY USER ---
+        // Amount of runs analyzed at the same time. Each run is mostly decoding frames, so more than the
+        // amount of cores does not help. Lower it if the frames are on a spinning disk.
+        int runsAtTheSameTime = Runtime.getRuntime().availableProcessors();
+        // Threads reading frame files ahead of decoding, shared by all runs, so the disk does not get more
+        // reads at the same time when more runs are analyzed at the same time. Use 1 for a spinning disk.
+        int readThreads = 4;
+        // If true, the swaps and delays of every run are saved to data/<run>.results.bin, so runs analyzed
+        // on several machines can be combined later with MergeResults, without decoding the frames again.
+        boolean saveResults = false;
+
+        // --- ACTUAL CODE STARTS ---
+        List<String> runNames = findRuns(args);
+        if (runNames.isEmpty()) {
+            System.out.println("No runs found in the data folder.");
+            return;
+        }
+        System.out.println("Analyzing " + runNames.size() + " runs, " + runsAtTheSameTime + " at the same time...");
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, runsAtTheSameTime));
+        ExecutorService readers = FramePrefetcher.newReadPool(Math.max(1, readThreads));
+        List<Future<RunResult>> results = new ArrayList<Future<RunResult>>();
+        for (String runName : runNames) {
+            results.add(executor.submit(() -> analyzeRun(runName, saveResults, readers)));
+        }
+        executor.shutdown();
+
+        // Print the runs in the order they were given, and pool the delays per scenario.
+        // Runs of a scenario with another fps (frame containers, see PackFrames) are pooled separately,
+        // since the same delay in frames is another delay in milliseconds.
+        Map<String, DelayHistogram> scenarioDelays = new LinkedHashMap<String, DelayHistogram>();
+        Map<String, Integer> scenarioRuns = new LinkedHashMap<String, Integer>();
+        Map<String, Double> scenarioMilliSecondsPerFrame = new LinkedHashMap<String, Double>();
+        System.out.println("");
+        System.out.println("@@@ RUNS @@@");
+        for (int i = 0; i < runNames.size(); i++) {
+            String runName = runNames.get(i);
+            RunResult result;
+            try {
+                result = results.get(i).get();
+            } catch (ExecutionException e) {
+                System.out.println(runName + ": failed, " + e.getCause());
+                continue;
+            }
+            DelayHistogram delays = result.statistics.getAllDelays().getHistogram();
+            System.out.println(runName + ": " + summarize(delays, result.milliSecondsPerFrame) + " (" + result.framesAnalyzed + " frames)");
+
+            String scenario = scenarioOf(runName);
+            Double scenarioMilliSeconds = scenarioMilliSecondsPerFrame.get(scenario);
+            if (scenarioMilliSeconds != null && scenarioMilliSeconds != result.milliSecondsPerFrame) {
+                scenario += ", " + Math.round(1000 / result.milliSecondsPerFrame) + "fps";
+            }
+            scenarioMilliSecondsPerFrame.putIfAbsent(scenario, result.milliSecondsPerFrame);
+            scenarioDelays.computeIfAbsent(scenario, s -> new DelayHistogram()).add(delays);
+            scenarioRuns.merge(scenario, 1, Integer::sum);
+        }
+
+        readers.shutdown();
+
+        System.out.println("");
+        System.out.println("@@@ SCENARIOS (ALL RUNS POOLED) @@@");
+        for (String scenario : scenarioDelays.keySet()) {
+            System.out.println(scenario + " (" + scenarioRuns.get(scenario) + " runs): " + summarize(scenarioDelays.get(scenario), scenarioMilliSecondsPerFrame.get(scenario)));
+        }
+    }
+
+    // Returns the names of all runs given on the command line, in the given order.
+    // Names with *, ? or [ are glob patterns matched against the names in the data folder (sorted by name).
+    static List<String> findRuns(String[] args) throws IOException {
+        List<String> runNames = new ArrayList<String>();
+        for (String arg : args) {
+            if (arg.contains("*") || arg.contains("?") || arg.contains("[")) {
+                List<String> matches = new ArrayList<String>();
+                try (DirectoryStream<Path> stream = Files.newDirectoryStream(Paths.get("data"), arg)) {
+                    for (Path path : stream) {
+                        String name = path.getFileName().toString();
+                        if (Files.isDirectory(path) || name.endsWith(".frames")) {
+                            matches.add(name);
+                        }
+                    }
+                }
+                matches.sort(null);
+                runNames.addAll(matches);
+            }
+            else {
+                runNames.add(arg);
+            }
+        }
+        return runNames;
+    }
+
+    // Returns the scenario of a run, which is the run name without the run number at the end.
+    // For example, "zoom_2" and "zoom 2.frames" both belong to scenario "zoom".
+    static String scenarioOf(String runName) {
+        String name = runName.endsWith(".frames") ? runName.substring(0, runName.length() - ".frames".length()) : runName;
+        int end = name.length();
+        while (end > 0 && Character.isDigit(name.charAt(end - 1))) {
+            end--;
+        }
+        while (end > 0 && (name.charAt(end - 1) == '_' || name.charAt(end - 1) == '-' || name.charAt(end - 1) == ' ')) {
+            end--;
+        }
+        return end == 0 ? name : name.substring(0, end);
+    }
+
+    // Delays found in a run, the amount of frames in it, and the milliseconds per frame of its video.
+    static class RunResult {
+        final DelayStatistics statistics;
+        final int framesAnalyzed;
+        final double milliSecondsPerFrame;
+
+        RunResult(DelayStatistics statistics, int framesAnalyzed, double milliSecondsPerFrame) {
+            this.statistics = statistics;
+            this.framesAnalyzed = framesAnalyzed;
+            this.milliSecondsPerFrame = milliSecondsPerFrame;
+        }
+    }
+
+    // Analyzes one run in a single pass, without printing anything. If saveResults is true, the swaps,
+    // delays and summary are written to data/<run>.results.bin (see BinaryResultWriter).
+    // The frame files are read ahead by the threads of "readers" (see FramePrefetcher), which all runs share.
+    static RunResult analyzeRun(String runName, boolean saveResults, ExecutorService readers) throws IOException {
+        // Pixel coordinates that we analyze (leftx, lefty) and (rightx, righty)
+        int leftx = 20;
+        int lefty = 30;
+        int rightx = 120;
+        int righty = 30;
+
+        // Patch around each pixel whose average color is used, 1x1 = only the pixel (see FrameSources.open)
+        int patchWidth = 1;
+        int patchHeight = 1;
+
+        DelayStatistics statistics = new DelayStatistics(false);
+        try (SeekableFrameSource frames = FrameSources.open(new File("data/" + runName), new int[] {leftx, rightx}, new int[] {lefty, righty}, patchWidth, patchHeight, FrameSources.READ_AHEAD_FRAMES, readers);
+             ResultWriter resultWriter = saveResults ? new BinaryResultWriter(new File("data/" + runName + ".results.bin"), Main.milliSecondsPerFrame(frames)) : null) {
+            DelayListener listener = resultWriter == null ? statistics : DelayListener.all(statistics, resultWriter);
+            int framesAnalyzed = AnalysisEngine.run(frames, new IndexPairingMatcher(listener));
+            if (resultWriter != null) {
+                resultWriter.summary(runName, framesAnalyzed, statistics);
+            }
+            return new RunResult(statistics, framesAnalyzed, Main.milliSecondsPerFrame(frames));
+        }
+    }
+
+    // One line with the most important statistics, in milliseconds.
+    static String summarize(DelayHistogram delays, double milliSecondsPerFrame) {
+        if (delays.getCount() == 0) {
+            return "no delays detected";
+        }
+        return delays.getCount() + " delays"
+            + ", lowest " + (int) (delays.getLowest() * milliSecondsPerFrame) + "ms"
+            + ", median " + (int) (delays.getMedian() * milliSecondsPerFrame) + "ms"
+            + ", average " + (int) (delays.getAverage() * milliSecondsPerFrame) + "ms"
+            + ", 90th percentile " + (int) (delays.getPercentile(0.9) * milliSecondsPerFrame) + "ms"
+            + ", highest " + (int) (delays.getHighest() * milliSecondsPerFrame) + "ms";
+    }
+}
\ No newline at end of file
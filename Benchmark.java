@@ -0,0 +1,325 @@
+import java.io.File;
+import java.io.IOException;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import javax.imageio.ImageIO;
+
+// Measures roughly how long the steps of the analysis take (decoding, pixel sampling, classification,
+// swap pairing and statistics), to see if a performance change helps at all.
+// Each benchmark is first run WARMUP_ITERATIONS times (so the JIT compiler has optimized the code),
+// and then measured MEASURED_ITERATIONS times. The time per operation is printed as mean and standard deviation,
+// followed by the amount of memory allocated per operation (garbage that the garbage collector has to clean up).
+// This is a simple timing loop with System.nanoTime, not a JMH benchmark: all benchmarks run in the same JVM
+// one after the other, so earlier benchmarks can change how later ones are compiled, and the numbers of short
+// benchmarks can be off. Compare numbers from the same machine and run them a few times before trusting small differences.
+// For accurate numbers, use the JMH benchmarks in the benchmarks folder instead (see pom.xml).
+
+// To run all benchmarks on the frames in data/exampleData, run "Benchmark exampleData" (after compiling).
+// Without an argument, synthetic black and white frames are generated in a temporary folder.
+public class Benchmark {
+    static final int WARMUP_ITERATIONS = 5;
+    static final int MEASURED_ITERATIONS = 10;
+
+    // Results of the benchmarks are added here, so the JIT compiler can not remove the measured code.
+    static long sink = 0;
+
+    // One benchmark iteration. Returns a value that depends on the work done (added to sink).
+    interface Task {
+        long run() throws Exception;
+    }
+
+    public static void main(String[] args) throws Exception {
+        File[] frames;
+        if (args.length >= 1) {
+            frames = FrameFolder.scan(new File("data/" + args[0])).getFiles();
+        }
+        else {
+            frames = writeSyntheticFrames(240);
+        }
+        System.out.println("Benchmarking with " + frames.length + " frames, " + WARMUP_ITERATIONS + " warmup and " + MEASURED_ITERATIONS + " measured iterations.");
+        System.out.println("");
+
+        // Pixel coordinates that we analyze (leftx, lefty) and (rightx, righty)
+        int leftx = 20;
+        int lefty = 30;
+        int rightx = 120;
+        int righty = 30;
+
+        FrameSampler sampler = new FrameSampler(new int[] {leftx, rightx}, new int[] {lefty, righty});
+        int[] rgbs = new int[2];
+
+        // --- DECODING ---
+        run("ImageIO.read, whole frame", frames.length, () -> {
+            long result = 0;
+            for (File file : frames) {
+                result += ImageIO.read(file).getRGB(leftx, lefty);
+            }
+            return result;
+        });
+        FrameDecoder decoder = new FrameDecoder();
+        run("FrameDecoder.decode, whole frame", frames.length, () -> {
+            long result = 0;
+            for (File file : frames) {
+                result += decoder.decode(file, null).getRGB(leftx, lefty);
+            }
+            return result;
+        });
+        run("FrameSampler.sample, probe region", frames.length, () -> {
+            long result = 0;
+            for (File file : frames) {
+                sampler.sample(file, rgbs);
+                result += rgbs[0] + rgbs[1];
+            }
+            return result;
+        });
+
+        // --- PIXEL SAMPLING AND CLASSIFICATION ---
+        BufferedImage[] images = new BufferedImage[Math.min(frames.length, 64)];
+        for (int i = 0; i < images.length; i++) {
+            images[i] = ImageIO.read(frames[i]);
+        }
+        // The same frames as TYPE_INT_RGB, which is what for example PNG and BMP frames without alpha decode to.
+        BufferedImage[] intImages = new BufferedImage[images.length];
+        for (int i = 0; i < images.length; i++) {
+            intImages[i] = new BufferedImage(images[i].getWidth(), images[i].getHeight(), BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = intImages[i].createGraphics();
+            g.drawImage(images[i], 0, 0, null);
+            g.dispose();
+        }
+        int samplesPerIteration = 100000;
+        run("getRGB, " + typeName(images[0]), samplesPerIteration, () -> {
+            long result = 0;
+            for (int i = 0; i < samplesPerIteration; i++) {
+                result += images[i % images.length].getRGB(leftx, lefty);
+            }
+            return result;
+        });
+        run("RasterSampler.getRGB, " + typeName(images[0]), samplesPerIteration, () -> {
+            long result = 0;
+            for (int i = 0; i < samplesPerIteration; i++) {
+                result += RasterSampler.getRGB(images[i % images.length], leftx, lefty);
+            }
+            return result;
+        });
+        run("getRGB, TYPE_INT_RGB", samplesPerIteration, () -> {
+            long result = 0;
+            for (int i = 0; i < samplesPerIteration; i++) {
+                result += intImages[i % intImages.length].getRGB(leftx, lefty);
+            }
+            return result;
+        });
+        run("RasterSampler.getRGB, TYPE_INT_RGB", samplesPerIteration, () -> {
+            long result = 0;
+            for (int i = 0; i < samplesPerIteration; i++) {
+                result += RasterSampler.getRGB(intImages[i % intImages.length], leftx, lefty);
+            }
+            return result;
+        });
+        run("getRGB + new Color + isBlack/isWhite (old)", samplesPerIteration, () -> {
+            long result = 0;
+            for (int i = 0; i < samplesPerIteration; i++) {
+                Color c = new Color(images[i % images.length].getRGB(leftx, lefty));
+                if (c.getRed() < 40 && c.getGreen() < 40 && c.getBlue() < 40) {
+                    result += 1;
+                }
+                else if (c.getRed() > 230 && c.getGreen() > 230 && c.getBlue() > 230) {
+                    result += 2;
+                }
+            }
+            return result;
+        });
+        run("getRGB + PixelClassifier.classify", samplesPerIteration, () -> {
+            long result = 0;
+            for (int i = 0; i < samplesPerIteration; i++) {
+                result += PixelClassifier.classify(images[i % images.length].getRGB(leftx, lefty));
+            }
+            return result;
+        });
+
+        // --- PATCH AVERAGING ---
+        int patchesPerIteration = 20000;
+        run("5x5 patch, getRGB for every pixel", patchesPerIteration, () -> {
+            long result = 0;
+            for (int i = 0; i < patchesPerIteration; i++) {
+                BufferedImage img = images[i % images.length];
+                int red = 0;
+                int green = 0;
+                int blue = 0;
+                for (int y = lefty - 2; y <= lefty + 2; y++) {
+                    for (int x = leftx - 2; x <= leftx + 2; x++) {
+                        int rgb = img.getRGB(x, y);
+                        red += (rgb >> 16) & 0xff;
+                        green += (rgb >> 8) & 0xff;
+                        blue += rgb & 0xff;
+                    }
+                }
+                result += RasterSampler.average(red, green, blue, 25);
+            }
+            return result;
+        });
+        run("5x5 patch, RasterSampler, " + typeName(images[0]), patchesPerIteration, () -> {
+            long result = 0;
+            for (int i = 0; i < patchesPerIteration; i++) {
+                result += RasterSampler.averageRGB(images[i % images.length], leftx - 2, lefty - 2, 5, 5);
+            }
+            return result;
+        });
+        run("5x5 patch, RasterSampler, TYPE_INT_RGB", patchesPerIteration, () -> {
+            long result = 0;
+            for (int i = 0; i < patchesPerIteration; i++) {
+                result += RasterSampler.averageRGB(intImages[i % intImages.length], leftx - 2, lefty - 2, 5, 5);
+            }
+            return result;
+        });
+
+        // --- SWAP PAIRING ---
+        // A synthetic 16 minute video (60fps), swapping every third second, with right 10-40 frames behind left.
+        Random random = new Random(1);
+        int frameCount = 16 * 60 * 60;
+        byte[] colorsLeft = new byte[frameCount];
+        byte[] colorsRight = new byte[frameCount];
+        int delay = 20;
+        for (int i = 0; i < frameCount; i++) {
+            if (i % 180 == 0) {
+                delay = 10 + random.nextInt(30);
+            }
+            colorsLeft[i] = (i / 180) % 2 == 0 ? PixelClassifier.BLACK : PixelClassifier.WHITE;
+            colorsRight[i] = (Math.max(0, i - delay) / 180) % 2 == 0 ? PixelClassifier.BLACK : PixelClassifier.WHITE;
+        }
+        run("Swap pairing, IndexPairingMatcher", frameCount, () -> {
+            DelayStatistics statistics = new DelayStatistics(false);
+            IndexPairingMatcher matcher = new IndexPairingMatcher(statistics);
+            for (int i = 0; i < frameCount; i++) {
+                matcher.accept(i + 1, colorsLeft[i], colorsRight[i]);
+            }
+            return statistics.getWhiteDelays().getCount() + statistics.getBlackDelays().getCount();
+        });
+        run("Swap pairing, WaitForNextMatcher", frameCount, () -> {
+            DelayStatistics statistics = new DelayStatistics(false);
+            WaitForNextMatcher matcher = new WaitForNextMatcher(statistics);
+            for (int i = 0; i < frameCount; i++) {
+                matcher.accept(i + 1, colorsLeft[i], colorsRight[i]);
+            }
+            return statistics.getWhiteDelays().getCount() + statistics.getBlackDelays().getCount();
+        });
+
+        // --- STATISTICS ---
+        // Delays of a whole campaign, 100 000 delays between 0 and 60 frames.
+        IntList delays = new IntList();
+        DelayHistogram delayHistogram = new DelayHistogram();
+        for (int i = 0; i < 100000; i++) {
+            int d = random.nextInt(61);
+            delays.add(d);
+            delayHistogram.record(d);
+        }
+        List<Integer> boxedDelays = new ArrayList<Integer>();
+        for (int d : delays.toArray()) {
+            boxedDelays.add(d);
+        }
+        run("Median, sorted Integer[] (old getMedian)", delays.size(), () -> {
+            Integer[] numArray = boxedDelays.toArray(new Integer[boxedDelays.size()]);
+            Arrays.sort(numArray);
+            return numArray[numArray.length / 2];
+        });
+        run("Median, IntList.median", delays.size(), () -> (long) delays.median());
+        run("Median, DelayHistogram.getMedian", delays.size(), () -> (long) delayHistogram.getMedian());
+        run("Within 25%, scanning the IntList (old)", delays.size(), () -> {
+            int countWithinRange = 0;
+            for (int i = 0; i < delays.size(); i++) {
+                if (delays.get(i) >= 0.75 * 30 && delays.get(i) <= 1.25 * 30) {
+                    countWithinRange++;
+                }
+            }
+            return countWithinRange;
+        });
+        run("Within 25%, DelayHistogram.getFractionWithin", delays.size(), () -> (long) (100 * delayHistogram.getFractionWithin(30, 0.75, 1.25)));
+        DelayHistogram[] runHistograms = new DelayHistogram[16];
+        for (int i = 0; i < runHistograms.length; i++) {
+            runHistograms[i] = new DelayHistogram();
+            runHistograms[i].add(delayHistogram);
+        }
+        run("Merge 16 runs, DelayHistogram.add", 16 * delays.size(), () -> {
+            DelayHistogram pooled = new DelayHistogram();
+            for (DelayHistogram histogram : runHistograms) {
+                pooled.add(histogram);
+            }
+            return pooled.getCount();
+        });
+
+        System.out.println("");
+        System.out.println("(sink: " + sink + ")");
+    }
+
+    // Runs a benchmark and prints the time per operation. opsPerIteration is the amount of operations
+    // (frames, samples, delays) done by one run of the task.
+    static void run(String name, int opsPerIteration, Task task) throws Exception {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            sink += task.run();
+        }
+        double[] nanosPerOp = new double[MEASURED_ITERATIONS];
+        long allocatedBefore = allocatedBytes();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            long start = System.nanoTime();
+            sink += task.run();
+            nanosPerOp[i] = (double) (System.nanoTime() - start) / opsPerIteration;
+        }
+        double bytesPerOp = (double) (allocatedBytes() - allocatedBefore) / MEASURED_ITERATIONS / opsPerIteration;
+
+        double mean = 0;
+        for (double n : nanosPerOp) {
+            mean += n / nanosPerOp.length;
+        }
+        double variance = 0;
+        for (double n : nanosPerOp) {
+            variance += (n - mean) * (n - mean) / nanosPerOp.length;
+        }
+        System.out.println(String.format("%-45s %12.1f ns/op  +- %8.1f  (%,.0f ops/s)  %,10.0f B/op", name, mean, Math.sqrt(variance), 1e9 / mean, bytesPerOp));
+    }
+
+    // Amount of bytes allocated by the current thread so far, or 0 if the JVM can not measure it.
+    static long allocatedBytes() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getCurrentThreadAllocatedBytes();
+        }
+        return 0;
+    }
+
+    // Name of the pixel layout of a decoded frame, for the benchmark names.
+    static String typeName(BufferedImage img) {
+        switch (img.getType()) {
+            case BufferedImage.TYPE_3BYTE_BGR: return "TYPE_3BYTE_BGR";
+            case BufferedImage.TYPE_INT_RGB: return "TYPE_INT_RGB";
+            case BufferedImage.TYPE_BYTE_GRAY: return "TYPE_BYTE_GRAY";
+            default: return "type " + img.getType();
+        }
+    }
+
+    // Writes frames that switch between black and white every 30 frames (right 5 frames after left)
+    // to a temporary folder, with the same size as the example data (148x74).
+    static File[] writeSyntheticFrames(int count) throws IOException {
+        File folder = Files.createTempDirectory("latency-benchmark").toFile();
+        folder.deleteOnExit();
+        File[] files = new File[count];
+        for (int i = 0; i < count; i++) {
+            BufferedImage img = new BufferedImage(148, 74, BufferedImage.TYPE_3BYTE_BGR);
+            Graphics2D g = img.createGraphics();
+            g.setColor((i / 30) % 2 == 0 ? Color.BLACK : Color.WHITE);
+            g.fillRect(0, 0, 74, 74);
+            g.setColor((Math.max(0, i - 5) / 30) % 2 == 0 ? Color.BLACK : Color.WHITE);
+            g.fillRect(74, 0, 74, 74);
+            g.dispose();
+            files[i] = new File(folder, String.format("synthetic %05d.jpg", i + 1));
+            ImageIO.write(img, "jpg", files[i]);
+            files[i].deleteOnExit();
+        }
+        return files;
+    }
+}
\ No newline at end of file
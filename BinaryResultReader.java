@@ -0,0 +1,99 @@
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+// Reads result files written by BinaryResultWriter (see there for the format), and gives every swap, delay and
+// run to a Handler, in the order they were written. A file can contain several runs (for example a file written
+// by MergeResults): the swaps and delays of each run are followed by the summary of the run.
+public class BinaryResultReader implements AutoCloseable {
+
+    public interface Handler extends DelayListener {
+        // Called after all swaps and delays of a run. name is the analyzed folder (or frame container).
+        void runEnded(String name, int framesAnalyzed) throws IOException;
+    }
+
+    private final File file;
+    private final DataInputStream in;
+    private final double milliSecondsPerFrame;
+
+    // Opens a result file and reads its header.
+    public BinaryResultReader(File file) throws IOException {
+        this.file = file;
+        this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), ResultWriter.BUFFER_SIZE));
+        try {
+            byte[] magic = new byte[BinaryResultWriter.MAGIC.length()];
+            in.readFully(magic);
+            if (!new String(magic, StandardCharsets.US_ASCII).equals(BinaryResultWriter.MAGIC)) {
+                throw new IOException(file + " is not a binary result file");
+            }
+            int version = in.readInt();
+            if (version != BinaryResultWriter.VERSION) {
+                throw new IOException(file + " has unsupported result file version " + version);
+            }
+            this.milliSecondsPerFrame = in.readDouble();
+        } catch (EOFException e) {
+            in.close();
+            throw new IOException(file + " is not a binary result file (file too short)");
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    public double getMilliSecondsPerFrame() {
+        return milliSecondsPerFrame;
+    }
+
+    // Reads all records in the file.
+    public void read(Handler handler) throws IOException {
+        try {
+            int type;
+            while ((type = in.read()) >= 0) {
+                if (type == BinaryResultWriter.SWAP) {
+                    int flags = in.readByte();
+                    int swapNum = in.readInt();
+                    int frame = in.readInt();
+                    handler.swapDetected((flags & 1) != 0, (flags & 2) != 0, swapNum, frame);
+                }
+                else if (type == BinaryResultWriter.DELAY) {
+                    boolean white = in.readByte() != 0;
+                    int swapNum = in.readInt();
+                    int frameLeft = in.readInt();
+                    int frameRight = in.readInt();
+                    handler.delayMeasured(white, swapNum, frameLeft, frameRight);
+                }
+                else if (type == BinaryResultWriter.SUMMARY) {
+                    String name = in.readUTF();
+                    int framesAnalyzed = in.readInt();
+                    for (int i = 0; i < 3; i++) {
+                        skipDelays(); // The statistics are calculated again from the delays
+                    }
+                    handler.runEnded(name, framesAnalyzed);
+                }
+                else {
+                    throw new IOException(file + " has an unknown record type " + type);
+                }
+            }
+        } catch (EOFException e) {
+            throw new IOException(file + " is truncated");
+        }
+    }
+
+    // Skips the statistics of the white, black or all delays in a summary.
+    private void skipDelays() throws IOException {
+        in.readInt(); // swaps left
+        in.readInt(); // swaps right
+        if (in.readLong() > 0) {
+            in.readFully(new byte[4 + 8 + 8 + 4 + 4 + 4]);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,95 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+// Writes the results in a compact binary format, about a third of the size of the CSV file, which is faster
+// to write and read for long recordings. The files of several runs can be combined with MergeResults,
+// and read with BinaryResultReader.
+//
+// File format (big endian):
+//   8 bytes  magic "LARESULT"
+//   4 bytes  version (1)
+//   8 bytes  milliseconds per frame (double)
+// followed by records, each starting with a 1 byte record type. The swaps and delays of a run are followed by
+// the summary of the run, and a file can contain several runs after each other (see MergeResults).
+//   SWAP (1):    1 byte flags (1 = left, 2 = white), 4 bytes swap number, 4 bytes frame
+//   DELAY (2):   1 byte white (1) or black (0), 4 bytes swap number, 4 bytes frame left, 4 bytes frame right
+//   SUMMARY (3): name (DataOutput.writeUTF), 4 bytes frames analyzed, and then for white, black and all delays:
+//                4 bytes swaps left, 4 bytes swaps right, 8 bytes count, and if count is not 0: 4 bytes lowest,
+//                8 bytes median (double), 8 bytes average (double), 4 bytes 90th, 4 bytes 99th percentile, 4 bytes highest
+public class BinaryResultWriter implements ResultWriter {
+    static final String MAGIC = "LARESULT";
+    static final int VERSION = 1;
+    static final byte SWAP = 1;
+    static final byte DELAY = 2;
+    static final byte SUMMARY = 3;
+
+    private final DataOutputStream out;
+
+    public BinaryResultWriter(File file, double milliSecondsPerFrame) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), ResultWriter.BUFFER_SIZE));
+        out.write(MAGIC.getBytes(StandardCharsets.US_ASCII));
+        out.writeInt(VERSION);
+        out.writeDouble(milliSecondsPerFrame);
+    }
+
+    @Override
+    public void swapDetected(boolean left, boolean white, int swapNum, int frame) {
+        try {
+            out.writeByte(SWAP);
+            out.writeByte((left ? 1 : 0) | (white ? 2 : 0));
+            out.writeInt(swapNum);
+            out.writeInt(frame);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void delayMeasured(boolean white, int swapNum, int frameLeft, int frameRight) {
+        try {
+            out.writeByte(DELAY);
+            out.writeByte(white ? 1 : 0);
+            out.writeInt(swapNum);
+            out.writeInt(frameLeft);
+            out.writeInt(frameRight);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void summary(String name, int framesAnalyzed, DelayStatistics statistics) throws IOException {
+        out.writeByte(SUMMARY);
+        out.writeUTF(name);
+        out.writeInt(framesAnalyzed);
+        writeDelays(statistics.getSwaps(true, true), statistics.getSwaps(false, true), statistics.getWhiteDelays());
+        writeDelays(statistics.getSwaps(true, false), statistics.getSwaps(false, false), statistics.getBlackDelays());
+        writeDelays(statistics.getSwaps(true, true) + statistics.getSwaps(true, false),
+            statistics.getSwaps(false, true) + statistics.getSwaps(false, false), statistics.getAllDelays());
+    }
+
+    private void writeDelays(int swapsLeft, int swapsRight, DelayStatistics.DelaySet delays) throws IOException {
+        DelayHistogram histogram = delays.getHistogram();
+        out.writeInt(swapsLeft);
+        out.writeInt(swapsRight);
+        out.writeLong(histogram.getCount());
+        if (histogram.getCount() > 0) {
+            out.writeInt(histogram.getLowest());
+            out.writeDouble(histogram.getMedian());
+            out.writeDouble(histogram.getAverage());
+            out.writeInt(histogram.getPercentile(0.9));
+            out.writeInt(histogram.getPercentile(0.99));
+            out.writeInt(histogram.getHighest());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
\ No newline at end of file
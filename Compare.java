@@ -0,0 +1,125 @@
+import java.io.File;
+import java.io.IOException;
+
+// Analyzes the frames with both methods in a single pass: the swap pairing of Main and the waiting of WaitForNext.
+// Every frame is only decoded once, instead of once per program. The delays of both methods are compared,
+// and every delay where they disagree is printed with its number and frames.
+// Main pairs the n:th swap on the left with the n:th swap on the right, so if one swap is missed
+// (for example when a delay is longer than the time between two swaps), every later delay is wrong.
+// The first disagreement shows where that happened.
+//
+// With "skip" as second argument, the delays found when jumping over frames (see SkippingEngine) are instead
+// compared with the delays found when reading every frame, for both methods.
+
+// To compare the methods on the frames in folder data/exampleData, run "Compare exampleData" (after compiling).
+// To verify that skipping frames gives the same delays, run "Compare exampleData skip"
+public class Compare {
+    public static void main(String[] args) throws IOException {
+
+        // --- SETTINGS, TO BE CHANGED BY USER ---
+        String folderWithFramesName = args[0]; // This folder must be located inside the data folder, and should contains frames from video (or be a frame container)
+        boolean printDisagreements = true; // If true, prints every delay where the methods disagree, not only the first one
+        int minSkip = 32; // Same as in Main
+        int maxSkip = 64;
+
+        // Set by command line's optional second argument.
+        boolean skipping = args.length == 2 && (args[1].equals("skip") || args[1].equals("k"));
+
+        // --- ACTUAL CODE STARTS ---
+        String path = "data/" + folderWithFramesName;
+        File folder = new File(path);
+
+        // Pixel coordinates that we analyze (leftx, lefty) and (rightx, righty)
+        int leftx = 20;
+        int lefty = 30;
+        int rightx = 120;
+        int righty = 30;
+
+        // Patch around each pixel whose average color is used, 1x1 = only the pixel (see FrameSources.open)
+        int patchWidth = 1;
+        int patchHeight = 1;
+
+        DelayStatistics indexPairing = new DelayStatistics(true);
+        DelayStatistics waitForNext = new DelayStatistics(true);
+        MatcherComparison comparison = new MatcherComparison();
+        MatcherComparison skippingIndexPairing = new MatcherComparison();
+        MatcherComparison skippingWaitForNext = new MatcherComparison();
+
+        int frameCount;
+        try (SeekableFrameSource frames = FrameSources.open(folder, new int[] {leftx, rightx}, new int[] {lefty, righty}, patchWidth, patchHeight)) {
+            System.out.println("Processing " + frames.getFrameCount() + " files...");
+            DelayListener indexPairingListener = DelayListener.all(indexPairing, comparison.getFirstListener(), skippingIndexPairing.getFirstListener());
+            DelayListener waitForNextListener = DelayListener.all(waitForNext, comparison.getSecondListener(), skippingWaitForNext.getFirstListener());
+            frameCount = AnalysisEngine.run(frames, DelayMatcher.all(new IndexPairingMatcher(indexPairingListener), new WaitForNextMatcher(waitForNextListener)));
+
+            if (skipping) {
+                SkippingEngine engine = new SkippingEngine(minSkip, maxSkip);
+                engine.run(frames, DelayMatcher.all(
+                    new IndexPairingMatcher(skippingIndexPairing.getSecondListener()),
+                    new WaitForNextMatcher(skippingWaitForNext.getSecondListener())));
+                System.out.println("Skipping read " + engine.getFramesRead() + " of " + frameCount + " frames.");
+            }
+        }
+
+        System.out.println("");
+        System.out.println("--------------------------");
+        System.out.println(skipping ? "@@@ COMPARISON OF SKIPPING AND READING EVERY FRAME @@@" : "@@@ COMPARISON OF MAIN AND WAITFORNEXT @@@");
+        System.out.println("");
+        System.out.println("File name: " + folderWithFramesName);
+        System.out.println("Total frames analyzed: " + frameCount);
+        printSummary("Main (index pairing)", indexPairing);
+        printSummary("WaitForNext", waitForNext);
+
+        if (skipping) {
+            printDisagreements("Main, every frame", "Main, skipping", skippingIndexPairing, printDisagreements);
+            printDisagreements("WaitForNext, every frame", "WaitForNext, skipping", skippingWaitForNext, printDisagreements);
+        }
+        else {
+            printDisagreements("Main", "WaitForNext", comparison, printDisagreements);
+        }
+    }
+
+    static void printSummary(String method, DelayStatistics statistics) {
+        DelayStatistics.DelaySet allDelays = statistics.getAllDelays();
+        System.out.println("");
+        System.out.println("--- " + method + " ---");
+        System.out.println("Delays detected: " + allDelays.getCount());
+        if (allDelays.getCount() == 0) {
+            return;
+        }
+        System.out.println("Average delay: " + (int) allDelays.getAverage() + " frames = " + (int) (allDelays.getAverage() * 16.6666) + " ms");
+        System.out.println("Median delay: " + (int) allDelays.getMedian() + " frames = " + (int) (allDelays.getMedian() * 16.6666) + " ms");
+    }
+
+    // Prints the disagreements between the first (named "first") and second (named "second") matcher.
+    static void printDisagreements(String first, String second, MatcherComparison comparison, boolean printAll) {
+        System.out.println("");
+        System.out.println("--- DISAGREEMENTS: " + first + " / " + second + " ---");
+        System.out.println("Delays compared: " + comparison.getComparedDelays() + ", disagreements: " + comparison.getDisagreements().size());
+        for (boolean white : new boolean[] {true, false}) {
+            int firstCount = comparison.getDelayCount(true, white);
+            int secondCount = comparison.getDelayCount(false, white);
+            if (firstCount != secondCount) {
+                System.out.println(first + " found " + firstCount + " " + (white ? "white" : "black") + " delays, " + second + " found " + secondCount + ".");
+            }
+        }
+        if (comparison.getDisagreements().isEmpty()) {
+            System.out.println("Both agree on every delay.");
+            return;
+        }
+
+        System.out.println("First disagreement: " + describe(first, second, comparison.getDisagreements().get(0)));
+        if (printAll) {
+            System.out.println("");
+            for (MatcherComparison.Disagreement disagreement : comparison.getDisagreements()) {
+                System.out.println(describe(first, second, disagreement));
+            }
+        }
+    }
+
+    static String describe(String first, String second, MatcherComparison.Disagreement d) {
+        return (d.white ? "White" : "Black") + " delay # " + d.swapNum
+            + ": " + first + " " + (d.firstFrameRight - d.firstFrameLeft) + " frames (left flipped at " + d.firstFrameLeft + ", right at " + d.firstFrameRight + ")"
+            + ", " + second + " " + (d.secondFrameRight - d.secondFrameLeft) + " frames (left flipped at " + d.secondFrameLeft + ", right at " + d.secondFrameRight + ")";
+    }
+}
\ No newline at end of file
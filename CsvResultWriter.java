@@ -0,0 +1,94 @@
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+// Writes the results as CSV, with one row per swap, per delay, and per color in the summary.
+// All rows have the same columns (see HEADER), and the "record" column tells what the row is:
+//   swap:    color, side, swap_num, frame
+//   delay:   color, swap_num, frame_left, frame_right, delay_frames, delay_ms
+//   summary: name, color (white, black or all), frames_analyzed, swaps_left, swaps_right, count,
+//            lowest, median, average, p90, p99 and highest (in frames, empty if count is 0)
+// Columns that do not belong to the record are empty.
+public class CsvResultWriter implements ResultWriter {
+    static final String HEADER = "record,name,color,side,swap_num,frame,frame_left,frame_right,delay_frames,delay_ms,"
+        + "frames_analyzed,swaps_left,swaps_right,count,lowest,median,average,p90,p99,highest";
+
+    private final Writer out;
+    private final double milliSecondsPerFrame;
+    private final StringBuilder row = new StringBuilder(128); // Reused for every row
+
+    public CsvResultWriter(File file, double milliSecondsPerFrame) throws IOException {
+        this.out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8), ResultWriter.BUFFER_SIZE);
+        this.milliSecondsPerFrame = milliSecondsPerFrame;
+        out.write(HEADER);
+        out.write('\n');
+    }
+
+    @Override
+    public void swapDetected(boolean left, boolean white, int swapNum, int frame) {
+        row.setLength(0);
+        row.append("swap,,").append(white ? "white" : "black").append(',').append(left ? "left" : "right")
+            .append(',').append(swapNum).append(',').append(frame).append(",,,,,,,,,,,,,,\n");
+        write();
+    }
+
+    @Override
+    public void delayMeasured(boolean white, int swapNum, int frameLeft, int frameRight) {
+        int delay = frameRight - frameLeft;
+        row.setLength(0);
+        row.append("delay,,").append(white ? "white" : "black").append(",,").append(swapNum).append(",,")
+            .append(frameLeft).append(',').append(frameRight).append(',').append(delay).append(',')
+            .append(Math.round(delay * milliSecondsPerFrame * 1000) / 1000.0).append(",,,,,,,,,,\n");
+        write();
+    }
+
+    @Override
+    public void summary(String name, int framesAnalyzed, DelayStatistics statistics) throws IOException {
+        summaryRow(name, "white", framesAnalyzed, statistics.getSwaps(true, true), statistics.getSwaps(false, true), statistics.getWhiteDelays());
+        summaryRow(name, "black", framesAnalyzed, statistics.getSwaps(true, false), statistics.getSwaps(false, false), statistics.getBlackDelays());
+        summaryRow(name, "all", framesAnalyzed, statistics.getSwaps(true, true) + statistics.getSwaps(true, false),
+            statistics.getSwaps(false, true) + statistics.getSwaps(false, false), statistics.getAllDelays());
+    }
+
+    private void summaryRow(String name, String color, int framesAnalyzed, int swapsLeft, int swapsRight, DelayStatistics.DelaySet delays) throws IOException {
+        DelayHistogram histogram = delays.getHistogram();
+        row.setLength(0);
+        row.append("summary,").append(quote(name)).append(',').append(color).append(",,,,,,,,")
+            .append(framesAnalyzed).append(',').append(swapsLeft).append(',').append(swapsRight).append(',').append(histogram.getCount());
+        if (histogram.getCount() > 0) {
+            row.append(',').append(histogram.getLowest()).append(',').append(histogram.getMedian()).append(',').append(histogram.getAverage())
+                .append(',').append(histogram.getPercentile(0.9)).append(',').append(histogram.getPercentile(0.99)).append(',').append(histogram.getHighest());
+        }
+        else {
+            row.append(",,,,,,");
+        }
+        row.append('\n');
+        out.append(row);
+    }
+
+    // Quotes a value if it contains a comma, quote or line break (RFC 4180).
+    static String quote(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    private void write() {
+        try {
+            out.append(row);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,125 @@
+// Counts how many times each delay (in frames) has been measured.
+// Delays are small frame counts, so one counter per possible delay gives exact medians and percentiles
+// while using the same amount of memory no matter how many delays are recorded.
+// Every statistic is calculated from the counters, in at most one pass over them, so summarizing any amount
+// of delays is cheap. Histograms of several runs (or of several threads) can be merged with add().
+// Delays further than MAX_DELAY frames from zero (a stuck pixel or a broken recording) have no counter,
+// they are kept as they are in a list instead, so all statistics stay exact.
+public class DelayHistogram {
+    static final int MAX_DELAY = 4096; // About 68 seconds at 60fps
+
+    private final long[] counts = new long[2 * MAX_DELAY + 1]; // counts[MAX_DELAY + d] = amount of delays d
+    private final IntList below = new IntList(); // Delays lower than -MAX_DELAY
+    private final IntList above = new IntList(); // Delays higher than MAX_DELAY
+    private long count = 0;
+    private long sum = 0;
+    private int lowest = Integer.MAX_VALUE;
+    private int highest = Integer.MIN_VALUE;
+
+    public void record(int delay) {
+        if (delay < -MAX_DELAY) {
+            below.add(delay);
+        }
+        else if (delay > MAX_DELAY) {
+            above.add(delay);
+        }
+        else {
+            counts[MAX_DELAY + delay]++;
+        }
+        count++;
+        sum += delay;
+        lowest = Math.min(lowest, delay);
+        highest = Math.max(highest, delay);
+    }
+
+    // Adds all delays recorded in another histogram to this one, for example to pool the delays of several runs.
+    public void add(DelayHistogram other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        below.addAll(other.below);
+        above.addAll(other.above);
+        count += other.count;
+        sum += other.sum;
+        lowest = Math.min(lowest, other.lowest);
+        highest = Math.max(highest, other.highest);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public int getLowest() {
+        return lowest;
+    }
+
+    public int getHighest() {
+        return highest;
+    }
+
+    public long getSum() {
+        return sum;
+    }
+
+    public double getAverage() {
+        return (double) sum / count;
+    }
+
+    // Median of the recorded delays, the average of the two middle delays if the count is even.
+    public double getMedian() {
+        if (count % 2 == 0)
+            return ((double) valueAtRank(count/2) + (double) valueAtRank(count/2 - 1)) / 2;
+        else
+            return (double) valueAtRank(count/2);
+    }
+
+    // Delay below which the given fraction (0.0 to 1.0) of the delays are, using the nearest-rank method.
+    // Example: getPercentile(0.95) is the 95th percentile.
+    public int getPercentile(double fraction) {
+        long rank = (long) Math.ceil(fraction * count);
+        return valueAtRank(Math.max(rank - 1, 0));
+    }
+
+    // Fraction (0.0 to 1.0) of the delays that are between lower * value and upper * value (inclusive),
+    // or NaN if there are no delays.
+    // Example: getFractionWithin(median, 0.75, 1.25) is the fraction of delays within 25% of the median.
+    public double getFractionWithin(double value, double lower, double upper) {
+        // Delays are whole frames, so the range is rounded inwards to whole frames
+        double from = Math.ceil(lower * value);
+        double to = Math.floor(upper * value);
+        long countWithin = 0;
+        for (int delay = (int) Math.max(-MAX_DELAY, from); from <= to && delay <= (int) Math.min(MAX_DELAY, to); delay++) {
+            countWithin += counts[MAX_DELAY + delay];
+        }
+        countWithin += countWithin(below, from, to) + countWithin(above, from, to);
+        return (double) countWithin / (double) count;
+    }
+
+    // Returns the delay at the given position (starting at 0) if all delays were sorted.
+    private int valueAtRank(long rank) {
+        if (rank < 0 || rank >= count) {
+            throw new IndexOutOfBoundsException("Rank " + rank + " out of bounds for count " + count);
+        }
+        if (rank < below.size()) {
+            return below.toSortedArray()[(int) rank];
+        }
+        long seen = below.size();
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen > rank) {
+                return i - MAX_DELAY;
+            }
+        }
+        return above.toSortedArray()[(int) (rank - seen)];
+    }
+
+    private static long countWithin(IntList delays, double from, double to) {
+        long countWithin = 0;
+        for (int i = 0; i < delays.size(); i++) {
+            if (delays.get(i) >= from && delays.get(i) <= to) {
+                countWithin++;
+            }
+        }
+        return countWithin;
+    }
+}
\ No newline at end of file
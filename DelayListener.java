@@ -0,0 +1,30 @@
+// Receives the swaps and delays found by a DelayMatcher, as soon as they are found.
+public interface DelayListener {
+
+    // Called when the left (left = true) or right video swapped to white (white = true) or to black.
+    // swapNum starts at 1 and is counted separately for left and right, and for white and black.
+    default void swapDetected(boolean left, boolean white, int swapNum, int frame) { }
+
+    // Called for every measured delay, which is frameRight - frameLeft frames.
+    // white is true for swaps to white, and swapNum starts at 1 and is counted separately for white and black.
+    void delayMeasured(boolean white, int swapNum, int frameLeft, int frameRight);
+
+    // Returns a listener that passes everything on to all of the given listeners, in the given order.
+    static DelayListener all(DelayListener... listeners) {
+        return new DelayListener() {
+            @Override
+            public void swapDetected(boolean left, boolean white, int swapNum, int frame) {
+                for (DelayListener listener : listeners) {
+                    listener.swapDetected(left, white, swapNum, frame);
+                }
+            }
+
+            @Override
+            public void delayMeasured(boolean white, int swapNum, int frameLeft, int frameRight) {
+                for (DelayListener listener : listeners) {
+                    listener.delayMeasured(white, swapNum, frameLeft, frameRight);
+                }
+            }
+        };
+    }
+}
\ No newline at end of file
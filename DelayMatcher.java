@@ -0,0 +1,19 @@
+// Finds the delays between the left and right video, looking at one frame at a time in frame order.
+// The swaps and delays that are found are given to a DelayListener.
+// Implemented by IndexPairingMatcher (the method of Main) and WaitForNextMatcher (the method of WaitForNext).
+public interface DelayMatcher {
+
+    // Looks at the next frame. Frame numbers start at 1.
+    // colorLeft and colorRight are PixelClassifier.BLACK, WHITE or OTHER.
+    void accept(int frame, byte colorLeft, byte colorRight);
+
+    // Returns a matcher that gives every frame to all of the given matchers, in the given order,
+    // so several strategies can analyze the same frames while every frame is only read once.
+    static DelayMatcher all(DelayMatcher... matchers) {
+        return (frame, colorLeft, colorRight) -> {
+            for (DelayMatcher matcher : matchers) {
+                matcher.accept(frame, colorLeft, colorRight);
+            }
+        };
+    }
+}
\ No newline at end of file
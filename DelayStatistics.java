@@ -0,0 +1,160 @@
+// Collects the swaps and delays found by a DelayMatcher: the amount of swaps, and for white delays,
+// black delays and all delays together the lowest and highest delay (with their frames) and a DelayHistogram
+// for averages, medians and percentiles. If keepDelays is true, every delay is also saved in an IntList
+// (in the order of the swaps), for printing them and for statistics that need the individual delays.
+public class DelayStatistics implements DelayListener {
+    private final DelaySet whiteDelays;
+    private final DelaySet blackDelays;
+    private final boolean keepDelays;
+
+    // Amount of swaps to white and black, for left and right.
+    private int leftWhiteSwaps = 0;
+    private int leftBlackSwaps = 0;
+    private int rightWhiteSwaps = 0;
+    private int rightBlackSwaps = 0;
+
+    public DelayStatistics(boolean keepDelays) {
+        this.keepDelays = keepDelays;
+        this.whiteDelays = new DelaySet(keepDelays);
+        this.blackDelays = new DelaySet(keepDelays);
+    }
+
+    @Override
+    public void swapDetected(boolean left, boolean white, int swapNum, int frame) {
+        if (left) {
+            if (white) leftWhiteSwaps++; else leftBlackSwaps++;
+        }
+        else {
+            if (white) rightWhiteSwaps++; else rightBlackSwaps++;
+        }
+    }
+
+    @Override
+    public void delayMeasured(boolean white, int swapNum, int frameLeft, int frameRight) {
+        (white ? whiteDelays : blackDelays).add(frameLeft, frameRight);
+    }
+
+    // Amount of swaps to white (white = true) or black (white = false) detected for left or right.
+    public int getSwaps(boolean left, boolean white) {
+        if (left) {
+            return white ? leftWhiteSwaps : leftBlackSwaps;
+        }
+        return white ? rightWhiteSwaps : rightBlackSwaps;
+    }
+
+    public DelaySet getWhiteDelays() {
+        return whiteDelays;
+    }
+
+    public DelaySet getBlackDelays() {
+        return blackDelays;
+    }
+
+    // All delays, the white delays followed by the black delays.
+    // The lowest/highest delay is the lowest/highest of the white and black delays, the black one if they are equal.
+    public DelaySet getAllDelays() {
+        DelaySet all = new DelaySet(keepDelays);
+        all.addAll(whiteDelays);
+        all.addAll(blackDelays);
+
+        DelaySet lowest = whiteDelays.lowest < blackDelays.lowest ? whiteDelays : blackDelays;
+        all.lowest = lowest.lowest;
+        all.firstFrame_lowest = lowest.firstFrame_lowest;
+        all.lastFrame_lowest = lowest.lastFrame_lowest;
+
+        DelaySet highest = whiteDelays.highest > blackDelays.highest ? whiteDelays : blackDelays;
+        all.highest = highest.highest;
+        all.firstFrame_highest = highest.firstFrame_highest;
+        all.lastFrame_highest = highest.lastFrame_highest;
+        return all;
+    }
+
+    // A set of delays. The lowest/highest delay is the first one measured if several delays are equally low/high.
+    public static class DelaySet {
+        private final DelayHistogram histogram = new DelayHistogram();
+        private final IntList delays; // null if the delays are not kept
+
+        private int lowest = 1000000;
+        private int highest = 0;
+        private int firstFrame_lowest = 0;
+        private int lastFrame_lowest = 0;
+        private int firstFrame_highest = 0;
+        private int lastFrame_highest = 0;
+
+        DelaySet(boolean keepDelays) {
+            this.delays = keepDelays ? new IntList() : null;
+        }
+
+        void add(int frameLeft, int frameRight) {
+            int delay = frameRight - frameLeft;
+            histogram.record(delay);
+            if (delays != null) {
+                delays.add(delay);
+            }
+            if (delay < lowest) {
+                lowest = delay;
+                firstFrame_lowest = frameLeft;
+                lastFrame_lowest = frameRight;
+            }
+            if (delay > highest) {
+                highest = delay;
+                firstFrame_highest = frameLeft;
+                lastFrame_highest = frameRight;
+            }
+        }
+
+        private void addAll(DelaySet other) {
+            histogram.add(other.histogram);
+            if (delays != null) {
+                delays.addAll(other.delays);
+            }
+        }
+
+        public int getCount() {
+            return (int) histogram.getCount();
+        }
+
+        // All delays in the order they were measured, or null if the delays were not kept.
+        public IntList getDelays() {
+            return delays;
+        }
+
+        public DelayHistogram getHistogram() {
+            return histogram;
+        }
+
+        public double getAverage() {
+            return histogram.getAverage();
+        }
+
+        public double getMedian() {
+            return histogram.getMedian();
+        }
+
+        public int getLowest() {
+            return lowest;
+        }
+
+        public int getHighest() {
+            return highest;
+        }
+
+        // Frames that left and right swapped at for the lowest delay.
+        public int getFirstFrameOfLowest() {
+            return firstFrame_lowest;
+        }
+
+        public int getLastFrameOfLowest() {
+            return lastFrame_lowest;
+        }
+
+        // Frames that left and right swapped at for the highest delay.
+        public int getFirstFrameOfHighest() {
+            return firstFrame_highest;
+        }
+
+        public int getLastFrameOfHighest() {
+            return lastFrame_highest;
+        }
+    }
+}
\ No newline at end of file
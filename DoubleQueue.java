@@ -0,0 +1,32 @@
+// A first-in-first-out queue of primitive doubles, stored in a ring buffer that only grows if needed.
+// Used by the matchers for the swaps (or crossings) that are waiting for the other side, so they are not boxed.
+// Whole frame numbers are stored exactly as doubles.
+public class DoubleQueue {
+    private double[] values = new double[4];
+    private int head = 0;
+    private int size = 0;
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void add(double value) {
+        if (size == values.length) {
+            double[] grown = new double[values.length * 2];
+            for (int i = 0; i < size; i++) {
+                grown[i] = values[(head + i) % values.length];
+            }
+            values = grown;
+            head = 0;
+        }
+        values[(head + size) % values.length] = value;
+        size++;
+    }
+
+    public double remove() {
+        double value = values[head];
+        head = (head + 1) % values.length;
+        size--;
+        return value;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,168 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+// Reads the frames of a folder while the recorder is still writing them, as a FrameSource with an unknown
+// amount of frames. read() waits until new frames are written, and returns as soon as there are any.
+// The folder is watched with a WatchService, and also scanned again every settleMillis (some file systems,
+// for example network drives, do not report new files).
+//
+// A frame file is only read when a frame with a higher number exists (so the recorder has finished writing it),
+// or when no file has been written for settleMillis. Frames are read in frame number order. A frame that is
+// written after a frame with a higher number has been read is skipped, and counted as missing.
+// The video ends when no frame has been written for stopAfterIdleMillis.
+public class FolderWatcher implements FrameSource {
+    private final File folder;
+    private final FrameSampler sampler;
+    private final int probeCount;
+    private final long settleNanos;
+    private final long stopAfterIdleNanos;
+    private final WatchService watchService;
+    private final ThreadLocal<int[]> pixelBuffers; // Each thread reuses its own pixel buffer
+
+    private final TreeMap<Integer, File> pending = new TreeMap<Integer, File>(); // Frames not read yet, by frame number
+    private int lastFrameNumber = -1; // Frame number of the last frame that was read
+    private int missingFrames = 0;
+    private long lastWriteNanos = System.nanoTime(); // When a frame file was last created or changed
+    private long lastScanNanos = 0;
+
+    public FolderWatcher(File folder, int[] probeXs, int[] probeYs, int patchWidth, int patchHeight, long settleMillis, long stopAfterIdleMillis) throws IOException {
+        this.folder = folder;
+        this.sampler = new FrameSampler(probeXs, probeYs, patchWidth, patchHeight);
+        this.probeCount = probeXs.length;
+        this.settleNanos = TimeUnit.MILLISECONDS.toNanos(settleMillis);
+        this.stopAfterIdleNanos = TimeUnit.MILLISECONDS.toNanos(stopAfterIdleMillis);
+        this.pixelBuffers = ThreadLocal.withInitial(() -> new int[probeCount]);
+
+        // Register before the first scan, so no file is missed in between
+        this.watchService = FileSystems.getDefault().newWatchService();
+        folder.toPath().register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        scan();
+    }
+
+    @Override
+    public int getFrameCount() {
+        return -1;
+    }
+
+    @Override
+    public int getProbeCount() {
+        return probeCount;
+    }
+
+    // Amount of frame numbers that were skipped (never written, or written too late).
+    public int getMissingFrames() {
+        return missingFrames;
+    }
+
+    @Override
+    public int read(int[] rgbs, int maxFrames) throws IOException {
+        while (true) {
+            long now = System.nanoTime();
+            if (now - lastScanNanos >= settleNanos) {
+                scan();
+            }
+
+            // The newest frame might still be written, unless the folder has been quiet for a while
+            boolean quiet = now - lastWriteNanos >= settleNanos;
+            int count = Math.min(maxFrames, quiet ? pending.size() : pending.size() - 1);
+            if (count > 0) {
+                File[] files = new File[count];
+                for (int i = 0; i < count; i++) {
+                    Map.Entry<Integer, File> frame = pending.pollFirstEntry();
+                    if (lastFrameNumber >= 0) {
+                        missingFrames += frame.getKey() - lastFrameNumber - 1;
+                    }
+                    lastFrameNumber = frame.getKey();
+                    files[i] = frame.getValue();
+                }
+                sample(files, rgbs);
+                return count;
+            }
+            if (now - lastWriteNanos >= stopAfterIdleNanos) {
+                return 0;
+            }
+            waitForChanges();
+        }
+    }
+
+    // Decodes the frame files in parallel (when starting on a folder that already has frames, or after a pause),
+    // and saves the colors in frame order.
+    private void sample(File[] files, int[] rgbs) throws IOException {
+        try {
+            IntStream.range(0, files.length).parallel().forEach(i -> {
+                int[] pixels = pixelBuffers.get();
+                try {
+                    sampler.sample(files[i], pixels);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                System.arraycopy(pixels, 0, rgbs, i * probeCount, probeCount);
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    // Waits at most settleMillis for files to be created or changed in the folder.
+    private void waitForChanges() throws IOException {
+        WatchKey key;
+        try {
+            key = watchService.poll(settleNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while watching " + folder);
+        }
+        while (key != null) {
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    scan(); // Events were lost
+                }
+                else {
+                    add(((Path) event.context()).getFileName().toString(), true);
+                }
+            }
+            key.reset();
+            key = watchService.poll();
+        }
+    }
+
+    // Adds all frame files in the folder that have not been seen yet.
+    private void scan() throws IOException {
+        for (File file : FrameFolder.scan(folder).getFiles()) {
+            add(file.getName(), false);
+        }
+        lastScanNanos = System.nanoTime();
+    }
+
+    // Adds a frame file, if it has not been read yet. written is true if the file was just created or changed
+    // (reported by the WatchService), and false if it was found by scanning the folder.
+    private void add(String name, boolean written) {
+        int frameNumber = name.startsWith(".") ? -1 : FrameFolder.parseFrameNumber(name);
+        if (frameNumber < 0) {
+            return;
+        }
+        if (frameNumber <= lastFrameNumber) {
+            return; // Already read, or written too late (counted as missing)
+        }
+        boolean isNew = pending.put(frameNumber, new File(folder, name)) == null;
+        if (isNew || written) {
+            lastWriteNanos = System.nanoTime();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,183 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.awt.image.BufferedImage;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+// A single file with all frames of a video stored as raw, uncompressed pixels, so frames can be
+// analyzed again and again (for example with other pixel coordinates) without decoding any JPEG files.
+// The file is memory mapped when read, and pixels are read directly from the mapped file by their offset.
+//
+// File format (big endian):
+//   8 bytes  magic "LAFRAMES"
+//   4 bytes  version (1)
+//   4 bytes  width
+//   4 bytes  height
+//   8 bytes  fps (double)
+//   4 bytes  pixel format (0 = rgb24, 3 bytes per pixel: red, green, blue)
+//   4 bytes  frame count
+//   the rest of the HEADER_SIZE bytes are zero
+// followed by the frames back to back, each width * height * 3 bytes, row by row.
+public class FrameContainer {
+    static final String MAGIC = "LAFRAMES";
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final int RGB24 = 0;
+
+    // A mapped buffer can be at most 2GB, so the frames are mapped in segments of at most SEGMENT_SIZE bytes.
+    static final long SEGMENT_SIZE = 1L << 30;
+
+    private final int width;
+    private final int height;
+    private final double fps;
+    private final int frameCount;
+    private final int frameSize;
+    private final int framesPerSegment;
+    private final MappedByteBuffer[] segments;
+
+    private FrameContainer(int width, int height, double fps, int frameCount, MappedByteBuffer[] segments) {
+        this.width = width;
+        this.height = height;
+        this.fps = fps;
+        this.frameCount = frameCount;
+        this.frameSize = width * height * 3;
+        this.framesPerSegment = (int) Math.max(1, SEGMENT_SIZE / Math.max(1, frameSize));
+        this.segments = segments;
+    }
+
+    // Memory maps a frame container file.
+    public static FrameContainer open(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining() && channel.read(header) >= 0) { }
+            header.flip();
+            if (header.remaining() < HEADER_SIZE) {
+                throw new IOException(file + " is not a frame container (file too short)");
+            }
+            byte[] magic = new byte[MAGIC.length()];
+            header.get(magic);
+            if (!new String(magic, StandardCharsets.US_ASCII).equals(MAGIC)) {
+                throw new IOException(file + " is not a frame container");
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException(file + " has unsupported frame container version " + version);
+            }
+            int width = header.getInt();
+            int height = header.getInt();
+            double fps = header.getDouble();
+            int pixelFormat = header.getInt();
+            int frameCount = header.getInt();
+            if (pixelFormat != RGB24) {
+                throw new IOException(file + " has unsupported pixel format " + pixelFormat);
+            }
+
+            long frameSize = (long) width * height * 3;
+            if (channel.size() < HEADER_SIZE + frameSize * frameCount) {
+                throw new IOException(file + " is truncated, expected " + frameCount + " frames");
+            }
+
+            int framesPerSegment = (int) Math.max(1, SEGMENT_SIZE / Math.max(1, frameSize));
+            MappedByteBuffer[] segments = new MappedByteBuffer[(frameCount + framesPerSegment - 1) / framesPerSegment];
+            for (int i = 0; i < segments.length; i++) {
+                int framesInSegment = Math.min(framesPerSegment, frameCount - i * framesPerSegment);
+                long position = HEADER_SIZE + (long) i * framesPerSegment * frameSize;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, framesInSegment * frameSize);
+            }
+            return new FrameContainer(width, height, fps, frameCount, segments);
+        }
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public double getFps() {
+        return fps;
+    }
+
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    // Returns the average color of the width x height pixels with the top left corner at (x, y), in the frame with
+    // the given index (starting at 0), as a packed RGB int (same format as BufferedImage.getRGB).
+    // The bytes are summed directly from the mapped file. Safe to call from several threads at the same time.
+    public int averageRGB(int frameIndex, int x, int y, int patchWidth, int patchHeight) {
+        MappedByteBuffer segment = segments[frameIndex / framesPerSegment];
+        int rowStart = (frameIndex % framesPerSegment) * frameSize + (y * width + x) * 3;
+        int red = 0;
+        int green = 0;
+        int blue = 0;
+        for (int row = 0; row < patchHeight; row++) {
+            int offset = rowStart;
+            for (int column = 0; column < patchWidth; column++) {
+                red += segment.get(offset) & 0xff;
+                green += segment.get(offset + 1) & 0xff;
+                blue += segment.get(offset + 2) & 0xff;
+                offset += 3;
+            }
+            rowStart += width * 3;
+        }
+        return RasterSampler.average(red, green, blue, patchWidth * patchHeight);
+    }
+
+    // Decodes all frame files (in the given order) and writes them to a new frame container file.
+    // All frames must have the same size.
+    public static void write(File[] frameFiles, double fps, File output) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(output), 1 << 20));
+             FrameDecoder decoder = new FrameDecoder()) {
+            int width = 0;
+            int height = 0;
+            int[] row = null;
+            byte[] rowBytes = null;
+            for (int frame = 0; frame < frameFiles.length; frame++) {
+                BufferedImage img = decoder.decode(frameFiles[frame], null);
+                if (frame == 0) {
+                    width = img.getWidth();
+                    height = img.getHeight();
+                    row = new int[width];
+                    rowBytes = new byte[width * 3];
+                    writeHeader(out, width, height, fps, frameFiles.length);
+                }
+                else if (img.getWidth() != width || img.getHeight() != height) {
+                    throw new IOException("Frame file " + frameFiles[frame] + " is " + img.getWidth() + "x" + img.getHeight() + ", expected " + width + "x" + height);
+                }
+
+                for (int y = 0; y < height; y++) {
+                    img.getRGB(0, y, width, 1, row, 0, width);
+                    for (int x = 0; x < width; x++) {
+                        rowBytes[x * 3] = (byte) (row[x] >> 16);
+                        rowBytes[x * 3 + 1] = (byte) (row[x] >> 8);
+                        rowBytes[x * 3 + 2] = (byte) row[x];
+                    }
+                    out.write(rowBytes);
+                }
+            }
+            if (frameFiles.length == 0) {
+                writeHeader(out, 0, 0, fps, 0);
+            }
+        }
+    }
+
+    private static void writeHeader(DataOutputStream out, int width, int height, double fps, int frameCount) throws IOException {
+        out.write(MAGIC.getBytes(StandardCharsets.US_ASCII));
+        out.writeInt(VERSION);
+        out.writeInt(width);
+        out.writeInt(height);
+        out.writeDouble(fps);
+        out.writeInt(RGB24);
+        out.writeInt(frameCount);
+        out.write(new byte[HEADER_SIZE - out.size()]);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,151 @@
+import java.io.File;
+import java.io.IOException;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.Iterator;
+import javax.imageio.IIOException;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.FileImageInputStream;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageInputStreamImpl;
+
+// Decodes frame files one after the other with the same ImageReader, into the same BufferedImage.
+// ImageIO.read looks up a reader in the service registry and allocates a new image for every frame, which for
+// a recording of tens of thousands of frames means megabytes of image buffers per second for the garbage collector.
+// The reader is only looked up again if a frame has another image format than the frame before it, and the
+// image is only allocated again if a frame (or region) has another size.
+// A decoder is not thread safe, so every thread needs its own (see FrameSampler). The returned image is
+// overwritten by the next decode, so it must not be kept.
+public class FrameDecoder implements AutoCloseable {
+    private ImageReader reader;
+    private BufferedImage destination;
+
+    // Decodes the region of the frame file (or the whole frame, if region is null).
+    // The region is clipped to the frame, and the returned image only contains the region,
+    // so pixel (x, y) of the frame is pixel (x - region.x, y - region.y) of the image.
+    public BufferedImage decode(File file, Rectangle region) throws IOException {
+        long start = Profiler.start();
+        return decode(new FileImageInputStream(file), file, region, start, true);
+    }
+
+    // Same as above, but decodes the contents of the frame file that were already read into memory
+    // (the first "length" bytes of "bytes", see FramePrefetcher). file is only used in error messages.
+    public BufferedImage decode(byte[] bytes, int length, File file, Rectangle region) throws IOException {
+        long start = Profiler.start();
+        return decode(new ByteArrayImageInputStream(bytes, length), file, region, start, false);
+    }
+
+    // fromDisk is true if the input reads the file itself, so the bytes it read are counted as read from disk.
+    private BufferedImage decode(ImageInputStream input, File file, Rectangle region, long start, boolean fromDisk) throws IOException {
+        try {
+            if (reader == null || !reader.getOriginatingProvider().canDecodeInput(input)) {
+                switchReader(file, input);
+            }
+            BufferedImage img;
+            try {
+                img = read(input, region, true);
+            } catch (IIOException e) {
+                if (destination == null) {
+                    throw e;
+                }
+                // The reused image does not fit this frame (for example a grayscale frame after color frames),
+                // so decode into a new image instead.
+                destination = null;
+                input.seek(0);
+                img = read(input, region, false);
+            }
+            // Only the bytes up to the end of the region are read from the file. Bytes that were read
+            // ahead are already counted by FramePrefetcher.
+            Profiler.DECODE.record(start, 1, fromDisk ? input.getStreamPosition() : 0);
+            return img;
+        } catch (IOException | RuntimeException e) {
+            // The reader might be left half way through a frame, start over with a new one for the next frame
+            close();
+            throw e;
+        } finally {
+            if (reader != null) {
+                reader.setInput(null);
+            }
+            input.close();
+        }
+    }
+
+    private BufferedImage read(ImageInputStream input, Rectangle region, boolean reuseDestination) throws IOException {
+        reader.setInput(input, true, true);
+        Rectangle frame = new Rectangle(0, 0, reader.getWidth(0), reader.getHeight(0));
+        Rectangle decoded = region == null ? frame : region.intersection(frame);
+        ImageReadParam param = reader.getDefaultReadParam();
+        param.setSourceRegion(decoded);
+        if (reuseDestination && destination != null && destination.getWidth() == decoded.width && destination.getHeight() == decoded.height) {
+            param.setDestination(destination);
+        }
+        destination = reader.read(0, param);
+        return destination;
+    }
+
+    // Replaces the reader with one for the image format of the frame file.
+    private void switchReader(File file, ImageInputStream input) throws IOException {
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+        if (!readers.hasNext()) {
+            throw new IOException("No image reader found for frame file " + file);
+        }
+        if (reader != null) {
+            reader.dispose();
+        }
+        reader = readers.next();
+        destination = null;
+    }
+
+    // Reads from a byte array, without copying it like the ImageInputStreams of ImageIO do.
+    private static class ByteArrayImageInputStream extends ImageInputStreamImpl {
+        private final byte[] bytes;
+        private final int length;
+
+        ByteArrayImageInputStream(byte[] bytes, int length) {
+            this.bytes = bytes;
+            this.length = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            checkClosed();
+            bitOffset = 0;
+            if (streamPos >= length) {
+                return -1;
+            }
+            return bytes[(int) streamPos++] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            checkClosed();
+            bitOffset = 0;
+            if (len == 0) {
+                return 0;
+            }
+            if (streamPos >= length) {
+                return -1;
+            }
+            int count = (int) Math.min(len, length - streamPos);
+            System.arraycopy(bytes, (int) streamPos, b, off, count);
+            streamPos += count;
+            return count;
+        }
+
+        @Override
+        public long length() {
+            return length;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (reader != null) {
+            reader.dispose();
+            reader = null;
+        }
+        destination = null;
+    }
+}
\ No newline at end of file
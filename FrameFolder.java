@@ -0,0 +1,112 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+// Lists the frame files in a folder, sorted by the frame number in their names.
+// File.listFiles() returns the files in no particular order, and since the frames are numbered by their
+// position in the list, every delay would depend on the order of the file system.
+// The frame number is the last number in the file name, for example 1 in "sweden10 00001.jpg".
+// Files without a number (and hidden files) are skipped. Missing and duplicate frame numbers are counted,
+// so they can be reported, since they make the delays in frames inaccurate.
+public class FrameFolder {
+    private final File[] files;
+    private final int missingFrames;   // Frame numbers between the first and last frame that have no file
+    private final int duplicateFrames; // Files with the same frame number as another file
+    private final int skippedFiles;    // Files without a frame number
+
+    private FrameFolder(File[] files, int missingFrames, int duplicateFrames, int skippedFiles) {
+        this.files = files;
+        this.missingFrames = missingFrames;
+        this.duplicateFrames = duplicateFrames;
+        this.skippedFiles = skippedFiles;
+    }
+
+    // Scans the folder once and sorts the files by frame number.
+    public static FrameFolder scan(File folder) throws IOException {
+        long start = Profiler.start();
+        String[] names = new String[1024];
+        long[] keys = new long[1024]; // frame number in the upper 32 bits, position in names in the lower 32 bits
+        int count = 0;
+        int skippedFiles = 0;
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(folder.toPath())) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                int frameNumber = name.startsWith(".") ? -1 : parseFrameNumber(name);
+                if (frameNumber < 0) {
+                    skippedFiles++;
+                    continue;
+                }
+                if (count == names.length) {
+                    names = Arrays.copyOf(names, count * 2);
+                    keys = Arrays.copyOf(keys, count * 2);
+                }
+                names[count] = name;
+                keys[count] = ((long) frameNumber << 32) | count;
+                count++;
+            }
+        }
+
+        // Sorting the keys sorts by frame number, and by position for equal frame numbers.
+        Arrays.sort(keys, 0, count);
+
+        File[] files = new File[count];
+        int missingFrames = 0;
+        int duplicateFrames = 0;
+        for (int i = 0; i < count; i++) {
+            files[i] = new File(folder, names[(int) keys[i]]);
+            if (i > 0) {
+                long frameNumber = keys[i] >>> 32;
+                long lastFrameNumber = keys[i - 1] >>> 32;
+                if (frameNumber == lastFrameNumber) {
+                    duplicateFrames++;
+                }
+                else {
+                    missingFrames += frameNumber - lastFrameNumber - 1;
+                }
+            }
+        }
+        Profiler.LIST_FOLDER.record(start);
+        return new FrameFolder(files, missingFrames, duplicateFrames, skippedFiles);
+    }
+
+    // Returns the last number in the file name (before the file extension), or -1 if there is none.
+    static int parseFrameNumber(String name) {
+        int end = name.lastIndexOf('.');
+        if (end < 0) {
+            end = name.length();
+        }
+        while (end > 0 && !Character.isDigit(name.charAt(end - 1))) {
+            end--;
+        }
+        int start = end;
+        while (start > 0 && Character.isDigit(name.charAt(start - 1))) {
+            start--;
+        }
+        if (start == end || end - start > 9) {
+            return -1;
+        }
+        return Integer.parseInt(name, start, end, 10);
+    }
+
+    // The frame files, sorted by frame number.
+    public File[] getFiles() {
+        return files;
+    }
+
+    // Prints a warning (to System.err, so it does not mix with the results) if frames are missing or duplicated.
+    public void printWarnings() {
+        if (missingFrames > 0) {
+            System.err.println("Warning: " + missingFrames + " frame numbers are missing, delays might be inaccurate.");
+        }
+        if (duplicateFrames > 0) {
+            System.err.println("Warning: " + duplicateFrames + " frame numbers are duplicated, delays might be inaccurate.");
+        }
+        if (skippedFiles > 0) {
+            System.err.println("Warning: " + skippedFiles + " files without a frame number were skipped.");
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,161 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntPredicate;
+
+// Reads the bytes of the next frame files from disk while the current frames are decoded, so the decoding does
+// not wait for the disk. On a spinning disk or a network drive, opening and reading a frame file can take longer
+// than decoding it, and without reading ahead the CPU would wait for every file (even with one core).
+// The readAheadFrames frames from the lowest frame that has not been taken yet are read by readThreads threads,
+// into byte arrays that are reused once the frame has been decoded. So however the frames are taken (for example
+// by parallel decoding threads, out of order), at most readAheadFrames frames are read ahead and waiting in memory.
+// A frame that is taken before its read has started is read by the thread that takes it. Frames that do not need to be read (for example because their colors are in the
+// sample cache) are skipped. Several prefetchers can share one pool of reading threads (see newReadPool),
+// so analyzing several folders at the same time (see Batch) does not multiply the reads on the same disk.
+public class FramePrefetcher implements AutoCloseable {
+
+    // The bytes of a frame file: the first "length" bytes of "bytes".
+    public static class Frame {
+        byte[] bytes;
+        int length;
+    }
+
+    private final File[] files;
+    private final IntPredicate skip;
+    private final int readAheadFrames;
+    private final ExecutorService readers;
+    private final boolean ownsReaders; // True if the readers were created for this prefetcher only
+    private final Future<Frame>[] reads; // reads[i] is the read of frame i, from when it is started until it is taken
+    private final boolean[] taken; // taken[i] is true once frame i has been taken
+    private final ConcurrentLinkedQueue<Frame> freeFrames = new ConcurrentLinkedQueue<Frame>();
+    private int started = 0; // Reads of frames 0 to started - 1 have been started (or the frame was taken before)
+    private int lowestUntaken = 0; // Frames 0 to lowestUntaken - 1 have all been taken
+
+    // Reads frames of "files" ahead with readThreads threads of its own.
+    // Frame i is not read if skip.test(i) is true when its read starts.
+    public FramePrefetcher(File[] files, int readAheadFrames, int readThreads, IntPredicate skip) {
+        this(files, readAheadFrames, newReadPool(readThreads), true, skip);
+    }
+
+    // Same as above, but the frames are read by the threads of "readers" (from newReadPool), which can be shared
+    // with other prefetchers. The readers are not shut down when this prefetcher is closed.
+    public FramePrefetcher(File[] files, int readAheadFrames, ExecutorService readers, IntPredicate skip) {
+        this(files, readAheadFrames, readers, false, skip);
+    }
+
+    @SuppressWarnings("unchecked")
+    private FramePrefetcher(File[] files, int readAheadFrames, ExecutorService readers, boolean ownsReaders, IntPredicate skip) {
+        this.files = files;
+        this.skip = skip;
+        this.readAheadFrames = readAheadFrames;
+        this.reads = (Future<Frame>[]) new Future<?>[files.length];
+        this.taken = new boolean[files.length];
+        this.readers = readers;
+        this.ownsReaders = ownsReaders;
+    }
+
+    // Returns a pool of readThreads threads for reading frame files.
+    public static ExecutorService newReadPool(int readThreads) {
+        return Executors.newFixedThreadPool(readThreads, runnable -> {
+            Thread thread = new Thread(runnable, "frame reader");
+            thread.setDaemon(true); // Does not keep the program running if the analysis fails
+            return thread;
+        });
+    }
+
+    // Returns the bytes of frame "index", waiting for them if they have not been read yet, or null if the frame
+    // was skipped. Also starts reading the frames ahead of the lowest frame that has not been taken. Frames can be taken in any order and by several
+    // threads, but every frame only once. The frame must be given back with release() after decoding it.
+    public Frame take(int index) throws IOException {
+        Future<Frame> read;
+        synchronized (this) {
+            if (taken[index]) {
+                throw new IllegalStateException("Frame " + index + " was already taken");
+            }
+            taken[index] = true;
+            read = reads[index];
+            reads[index] = null;
+            while (lowestUntaken < files.length && taken[lowestUntaken]) {
+                lowestUntaken++;
+            }
+            startReads(Math.min(files.length, lowestUntaken + readAheadFrames));
+        }
+        if (read == null) { // Further ahead than the frames being read, so it is read here
+            return skip.test(index) ? null : read(files[index]);
+        }
+        try {
+            return read.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Could not read frame file " + files[index], e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while reading frame file " + files[index]);
+        }
+    }
+
+    // Gives back the bytes of a frame (from take), so they can be reused for another frame.
+    public void release(Frame frame) {
+        if (frame != null) {
+            freeFrames.add(frame);
+        }
+    }
+
+    // Starts reading all frames before "end" that are not being read yet and have not been taken.
+    private void startReads(int end) {
+        for (; started < end; started++) {
+            int index = started;
+            if (!taken[index]) {
+                reads[index] = readers.submit(() -> skip.test(index) ? null : read(files[index]));
+            }
+        }
+    }
+
+    private Frame read(File file) throws IOException {
+        long start = Profiler.start();
+        Frame frame = freeFrames.poll();
+        if (frame == null) {
+            frame = new Frame();
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE - 8) {
+                throw new IOException("Frame file " + file + " is too large");
+            }
+            if (frame.bytes == null || frame.bytes.length < size) {
+                frame.bytes = new byte[(int) size];
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(frame.bytes, 0, (int) size);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) { }
+            frame.length = buffer.position(); // Less than size if the file was truncated while reading
+        } catch (IOException e) {
+            freeFrames.add(frame);
+            throw e;
+        }
+        Profiler.READ_FILES.record(start, 1, frame.length);
+        return frame;
+    }
+
+    // Stops reading ahead. Reads that have not started yet are cancelled, so shared readers are free for other prefetchers.
+    @Override
+    public synchronized void close() {
+        if (ownsReaders) {
+            readers.shutdownNow();
+            return;
+        }
+        for (Future<Frame> read : reads) {
+            if (read != null) {
+                read.cancel(false);
+            }
+        }
+    }
+}
\ No newline at end of file
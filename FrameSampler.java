@@ -0,0 +1,78 @@
+import java.io.File;
+import java.io.IOException;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+
+// Reads the colors of a few specified pixels (probes) from frame files.
+// Instead of decoding the whole frame like ImageIO.read does, only the smallest region covering
+// all probes is decoded. A JPEG decoder can stop after the last row of that region, so with the
+// probes near the top of the frame (like (20,30) and (120,30)) only a small part of every frame is decoded.
+// Each probe can be a patch of patchWidth x patchHeight pixels centered on the probe coordinates, and then the
+// average color of the patch is used (see RasterSampler). With a 1x1 patch, only the pixel itself is used.
+// Every thread that uses the sampler decodes with its own FrameDecoder, which reuses the image reader and the
+// decoded image from frame to frame, so one sampler can be shared by several threads.
+public class FrameSampler {
+    private final int[] patchXs; // Top left corner of the patch of each probe
+    private final int[] patchYs;
+    private final int patchWidth;
+    private final int patchHeight;
+    private final Rectangle region; // Smallest region of the frame that covers all patches
+    private final ThreadLocal<FrameDecoder> decoders = ThreadLocal.withInitial(FrameDecoder::new);
+
+    public FrameSampler(int[] probeXs, int[] probeYs) {
+        this(probeXs, probeYs, 1, 1);
+    }
+
+    public FrameSampler(int[] probeXs, int[] probeYs, int patchWidth, int patchHeight) {
+        this.patchXs = new int[probeXs.length];
+        this.patchYs = new int[probeYs.length];
+        this.patchWidth = patchWidth;
+        this.patchHeight = patchHeight;
+
+        int minX = Integer.MAX_VALUE;
+        int minY = Integer.MAX_VALUE;
+        int maxX = 0;
+        int maxY = 0;
+        for (int i = 0; i < probeXs.length; i++) {
+            patchXs[i] = probeXs[i] - (patchWidth - 1) / 2;
+            patchYs[i] = probeYs[i] - (patchHeight - 1) / 2;
+            minX = Math.min(minX, patchXs[i]);
+            minY = Math.min(minY, patchYs[i]);
+            maxX = Math.max(maxX, patchXs[i] + patchWidth - 1);
+            maxY = Math.max(maxY, patchYs[i] + patchHeight - 1);
+        }
+        if (minX < 0 || minY < 0) {
+            throw new IllegalArgumentException("A " + patchWidth + "x" + patchHeight + " patch around a probe is outside of the frame");
+        }
+        this.region = new Rectangle(minX, minY, maxX - minX + 1, maxY - minY + 1);
+    }
+
+    public int getProbeCount() {
+        return patchXs.length;
+    }
+
+    // Decodes the probe region of the frame file and saves the (average) color of each probe in rgbs,
+    // as a packed RGB int (same format as BufferedImage.getRGB). rgbs[i] is the color of probe i.
+    public void sample(File file, int[] rgbs) throws IOException {
+        sample(decoders.get().decode(file, region), file, rgbs);
+    }
+
+    // Same as above, but for a frame file that was already read into memory (see FramePrefetcher):
+    // the first "length" bytes of "bytes" are the contents of the file.
+    public void sample(byte[] bytes, int length, File file, int[] rgbs) throws IOException {
+        sample(decoders.get().decode(bytes, length, file, region), file, rgbs);
+    }
+
+    private void sample(BufferedImage img, File file, int[] rgbs) throws IOException {
+        if (img.getWidth() < region.width || img.getHeight() < region.height) {
+            throw new IOException("Frame file " + file + " is too small for the probes");
+        }
+
+        // The decoded image only contains the region, so coordinates are relative to the region.
+        long start = Profiler.start();
+        for (int i = 0; i < patchXs.length; i++) {
+            rgbs[i] = RasterSampler.averageRGB(img, patchXs[i] - region.x, patchYs[i] - region.y, patchWidth, patchHeight);
+        }
+        Profiler.SAMPLE.record(start, 1, 0);
+    }
+}
\ No newline at end of file
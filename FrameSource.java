@@ -0,0 +1,21 @@
+import java.io.IOException;
+
+// Reads the colors of the probes (specified pixels) in the frames of a video, in frame order.
+// FrameSources.open returns a source for a folder with frame files or for a frame container,
+// RawFrameReader is a source for raw video from a pipe, and FolderWatcher for a folder that is still being recorded.
+public interface FrameSource extends AutoCloseable {
+
+    // Amount of frames in the video, or -1 if it is not known in advance (for example when reading from a pipe).
+    int getFrameCount();
+
+    int getProbeCount();
+
+    // Reads the next frames (at most maxFrames) and saves the color of each probe as a packed RGB int
+    // (same format as BufferedImage.getRGB): rgbs[i * getProbeCount() + p] is the color of probe p in the
+    // i:th frame that was read. Returns the amount of frames read, or 0 if there are no frames left.
+    int read(int[] rgbs, int maxFrames) throws IOException;
+
+    // Called when all frames have been read.
+    @Override
+    default void close() throws IOException { }
+}
\ No newline at end of file
@@ -0,0 +1,210 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.IntStream;
+
+// Opens the frames of a video in the data folder as a FrameSource: either a folder with frame files,
+// or a frame container made by PackFrames (if the path is a file). Both can also be read in any order.
+public class FrameSources {
+    // Defaults for reading frame files ahead of decoding (see FramePrefetcher).
+    static final int READ_AHEAD_FRAMES = 64;
+    static final int READ_THREADS = 4;
+
+    // Opens data/<name>. probeXs and probeYs are the coordinates of the pixels that are read in every frame.
+    // Warnings about missing or duplicated frames in a folder are printed to System.err.
+    public static SeekableFrameSource open(File path, int[] probeXs, int[] probeYs) throws IOException {
+        return open(path, probeXs, probeYs, 1, 1);
+    }
+
+    // Same as above, but the color of each probe is the average color of a patchWidth x patchHeight patch
+    // centered on the probe coordinates (1x1 = only the pixel itself). Larger patches are less sensitive
+    // to JPEG artifacts, so the frames can be recorded in lower quality.
+    public static SeekableFrameSource open(File path, int[] probeXs, int[] probeYs, int patchWidth, int patchHeight) throws IOException {
+        return open(path, probeXs, probeYs, patchWidth, patchHeight, READ_AHEAD_FRAMES, READ_THREADS);
+    }
+
+    // Same as above, but the next readAheadFrames frame files of a folder are read from disk by readThreads
+    // threads while the current frames are decoded (see FramePrefetcher). 0 reads every file when it is decoded.
+    public static SeekableFrameSource open(File path, int[] probeXs, int[] probeYs, int patchWidth, int patchHeight, int readAheadFrames, int readThreads) throws IOException {
+        return open(path, probeXs, probeYs, patchWidth, patchHeight, readAheadFrames, readThreads, null);
+    }
+
+    // Same as above, but the frame files are read by the threads of "readers" (see FramePrefetcher.newReadPool),
+    // which can be shared by several sources that are read at the same time.
+    public static SeekableFrameSource open(File path, int[] probeXs, int[] probeYs, int patchWidth, int patchHeight, int readAheadFrames, ExecutorService readers) throws IOException {
+        return open(path, probeXs, probeYs, patchWidth, patchHeight, readAheadFrames, 0, readers);
+    }
+
+    private static SeekableFrameSource open(File path, int[] probeXs, int[] probeYs, int patchWidth, int patchHeight, int readAheadFrames, int readThreads, ExecutorService readers) throws IOException {
+        if (patchWidth < 1 || patchHeight < 1) {
+            throw new IllegalArgumentException("Patch size must be at least 1x1, was " + patchWidth + "x" + patchHeight);
+        }
+        if (path.isFile()) {
+            return new ContainerSource(FrameContainer.open(path), probeXs, probeYs, patchWidth, patchHeight);
+        }
+        FrameFolder frameFolder = FrameFolder.scan(path); // Frame files sorted by frame number
+        frameFolder.printWarnings();
+        return new FolderSource(path, frameFolder.getFiles(), probeXs, probeYs, patchWidth, patchHeight, readAheadFrames, readThreads, readers);
+    }
+
+    // Reads the probes directly from the memory mapped frame container, no frames are decoded.
+    private static class ContainerSource implements SeekableFrameSource {
+        private final FrameContainer container;
+        private final int[] patchXs; // Top left corner of the patch of each probe
+        private final int[] patchYs;
+        private final int patchWidth;
+        private final int patchHeight;
+        private int next = 0; // Index of the next frame to read
+
+        ContainerSource(FrameContainer container, int[] probeXs, int[] probeYs, int patchWidth, int patchHeight) {
+            this.container = container;
+            this.patchXs = new int[probeXs.length];
+            this.patchYs = new int[probeYs.length];
+            this.patchWidth = patchWidth;
+            this.patchHeight = patchHeight;
+            for (int p = 0; p < probeXs.length; p++) {
+                patchXs[p] = probeXs[p] - (patchWidth - 1) / 2;
+                patchYs[p] = probeYs[p] - (patchHeight - 1) / 2;
+                if (patchXs[p] < 0 || patchYs[p] < 0 || patchXs[p] + patchWidth > container.getWidth() || patchYs[p] + patchHeight > container.getHeight()) {
+                    throw new IllegalArgumentException("The patch around pixel (" + probeXs[p] + "," + probeYs[p] + ") is outside of the frames in the container");
+                }
+            }
+        }
+
+        @Override
+        public int getFrameCount() {
+            return container.getFrameCount();
+        }
+
+        @Override
+        public double getFps() {
+            return container.getFps();
+        }
+
+        @Override
+        public int getProbeCount() {
+            return patchXs.length;
+        }
+
+        @Override
+        public int read(int[] rgbs, int maxFrames) {
+            int count = Math.min(maxFrames, container.getFrameCount() - next);
+            for (int i = 0; i < count; i++) {
+                readFrame(next + i, rgbs, i * patchXs.length);
+            }
+            next += count;
+            return count;
+        }
+
+        @Override
+        public void readFrame(int index, int[] rgbs) {
+            readFrame(index, rgbs, 0);
+        }
+
+        private void readFrame(int index, int[] rgbs, int start) {
+            for (int p = 0; p < patchXs.length; p++) {
+                rgbs[start + p] = container.averageRGB(index, patchXs[p], patchYs[p], patchWidth, patchHeight);
+            }
+        }
+    }
+
+    // Decodes the frame files in parallel, spread over all cores. Only the region around the probes is decoded
+    // (see FrameSampler), and colors saved by an earlier run (see SampleCache) are used for frames
+    // that have not changed (see SampleCache). The cache is saved when the source is closed.
+    // Frame files that are not in the cache are read from disk ahead of decoding (see FramePrefetcher).
+    private static class FolderSource implements SeekableFrameSource {
+        private final File[] files;
+        private final FrameSampler sampler;
+        private final SampleCache cache;
+        private final FramePrefetcher prefetcher; // null if files are not read ahead
+        private final int probeCount;
+        private final ThreadLocal<int[]> pixelBuffers; // Each thread reuses its own pixel buffer
+        private int next = 0; // Index of the next frame to read
+
+        // The files are read ahead by "readers" if it is not null, and otherwise by readThreads threads of their own.
+        FolderSource(File folder, File[] files, int[] probeXs, int[] probeYs, int patchWidth, int patchHeight, int readAheadFrames, int readThreads, ExecutorService readers) {
+            this.files = files;
+            this.sampler = new FrameSampler(probeXs, probeYs, patchWidth, patchHeight);
+            File cacheFile = SampleCache.cacheFileFor(folder, probeXs, probeYs, patchWidth, patchHeight);
+            this.cache = SampleCache.load(cacheFile, probeXs, probeYs, patchWidth, patchHeight, files.length);
+            if (readAheadFrames > 0 && readers != null) {
+                this.prefetcher = new FramePrefetcher(files, readAheadFrames, readers, i -> cache.isCached(i, files[i]));
+            }
+            else if (readAheadFrames > 0 && readThreads > 0) {
+                this.prefetcher = new FramePrefetcher(files, readAheadFrames, readThreads, i -> cache.isCached(i, files[i]));
+            }
+            else {
+                this.prefetcher = null;
+            }
+            this.probeCount = probeXs.length;
+            this.pixelBuffers = ThreadLocal.withInitial(() -> new int[probeCount]);
+        }
+
+        @Override
+        public int getFrameCount() {
+            return files.length;
+        }
+
+        @Override
+        public int getProbeCount() {
+            return probeCount;
+        }
+
+        // Only the decoding is parallel, the frames are still returned in frame order.
+        @Override
+        public int read(int[] rgbs, int maxFrames) throws IOException {
+            int from = next;
+            int count = Math.min(maxFrames, files.length - from);
+            try {
+                IntStream.range(from, from + count).parallel().forEach(i -> {
+                    int[] pixels = pixelBuffers.get();
+                    try {
+                        sample(i, pixels);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    System.arraycopy(pixels, 0, rgbs, (i - from) * probeCount, probeCount);
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            next += count;
+            return count;
+        }
+
+        private void sample(int index, int[] rgbs) throws IOException {
+            if (prefetcher == null) {
+                cache.sample(sampler, index, files[index], rgbs);
+                return;
+            }
+            FramePrefetcher.Frame frame = prefetcher.take(index); // null if it was in the cache when it would be read
+            try {
+                cache.sample(index, files[index], rgbs, pixels -> {
+                    if (frame != null) {
+                        sampler.sample(frame.bytes, frame.length, files[index], pixels);
+                    }
+                    else {
+                        sampler.sample(files[index], pixels);
+                    }
+                });
+            } finally {
+                prefetcher.release(frame);
+            }
+        }
+
+        // Reads a single frame (for example when skipping), so it is not read ahead.
+        @Override
+        public void readFrame(int index, int[] rgbs) throws IOException {
+            cache.sample(sampler, index, files[index], rgbs);
+        }
+
+        @Override
+        public void close() {
+            if (prefetcher != null) {
+                prefetcher.close();
+            }
+            cache.save();
+        }
+    }
+}
\ No newline at end of file
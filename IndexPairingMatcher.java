@@ -0,0 +1,70 @@
+// Finds delays the way Main does: the n:th time left swaps from black to white is paired with the n:th time
+// right swaps from black to white (and the same for white to black), and the delay is the difference
+// between their frames. Each delay is reported as soon as both left and right have swapped.
+// Only swaps that have not been paired yet are kept (normally at most one per color),
+// so memory use does not grow with the length of the video.
+public class IndexPairingMatcher implements DelayMatcher {
+    private final DelayListener listener;
+
+    private final TransitionDetector left = new TransitionDetector();
+    private final TransitionDetector right = new TransitionDetector();
+
+    private final SwapPairer whiteSwaps = new SwapPairer(true);
+    private final SwapPairer blackSwaps = new SwapPairer(false);
+
+    public IndexPairingMatcher(DelayListener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public void accept(int frame, byte colorLeft, byte colorRight) {
+        byte swapLeft = left.next(colorLeft);
+        if (swapLeft != PixelClassifier.OTHER) {
+            (swapLeft == PixelClassifier.WHITE ? whiteSwaps : blackSwaps).leftSwapped(frame);
+        }
+
+        byte swapRight = right.next(colorRight);
+        if (swapRight != PixelClassifier.OTHER) {
+            (swapRight == PixelClassifier.WHITE ? whiteSwaps : blackSwaps).rightSwapped(frame);
+        }
+    }
+
+    // Pairs the swaps to one color on the left with the swaps to the same color on the right.
+    // Swap frames are only saved until the other side has swapped as well.
+    private class SwapPairer {
+        private final boolean white;
+        private final DoubleQueue unpairedLeft = new DoubleQueue(); // Frames of swaps, exact as doubles
+        private final DoubleQueue unpairedRight = new DoubleQueue();
+        private int leftCount = 0;
+        private int rightCount = 0;
+        private int pairedCount = 0;
+
+        SwapPairer(boolean white) {
+            this.white = white;
+        }
+
+        void leftSwapped(int frame) {
+            leftCount++;
+            listener.swapDetected(true, white, leftCount, frame);
+            if (unpairedRight.isEmpty()) {
+                unpairedLeft.add(frame);
+            }
+            else {
+                pairedCount++;
+                listener.delayMeasured(white, pairedCount, frame, (int) unpairedRight.remove());
+            }
+        }
+
+        void rightSwapped(int frame) {
+            rightCount++;
+            listener.swapDetected(false, white, rightCount, frame);
+            if (unpairedLeft.isEmpty()) {
+                unpairedRight.add(frame);
+            }
+            else {
+                pairedCount++;
+                listener.delayMeasured(white, pairedCount, (int) unpairedLeft.remove(), frame);
+            }
+        }
+    }
+}
\ No newline at end of file
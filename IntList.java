@@ -0,0 +1,92 @@
+import java.util.Arrays;
+
+// A growable list of primitive ints, used instead of ArrayList<Integer> for frame numbers and delays
+// so that adding values and calculating statistics does not box every value into an Integer.
+public class IntList {
+    private int[] values;
+    private int size;
+
+    public IntList() {
+        values = new int[16];
+    }
+
+    public void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = value;
+    }
+
+    public void addAll(IntList other) {
+        if (size + other.size > values.length) {
+            values = Arrays.copyOf(values, Math.max(size + other.size, size * 2));
+        }
+        System.arraycopy(other.values, 0, values, size, other.size);
+        size += other.size;
+    }
+
+    public int get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        return values[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Removes all values, but keeps the allocated capacity for reuse.
+    public void clear() {
+        size = 0;
+    }
+
+    public int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    // Returns a sorted copy of the values.
+    // Delays and frame numbers are usually close to each other, so when the range between the lowest and
+    // highest value is small, the values are sorted by counting them (linear time) instead of Arrays.sort.
+    public int[] toSortedArray() {
+        int[] sorted = toArray();
+        if (size == 0) {
+            return sorted;
+        }
+        int min = sorted[0];
+        int max = sorted[0];
+        for (int i = 1; i < size; i++) {
+            min = Math.min(min, sorted[i]);
+            max = Math.max(max, sorted[i]);
+        }
+        long range = (long) max - min + 1;
+        if (range > 4L * size + 1024) {
+            Arrays.sort(sorted);
+            return sorted;
+        }
+        int[] counts = new int[(int) range];
+        for (int i = 0; i < size; i++) {
+            counts[sorted[i] - min]++;
+        }
+        int index = 0;
+        for (int i = 0; i < counts.length; i++) {
+            for (int j = 0; j < counts[i]; j++) {
+                sorted[index++] = min + i;
+            }
+        }
+        return sorted;
+    }
+
+    // Median of the values, the average of the two middle values if the size is even.
+    public double median() {
+        int[] sorted = toSortedArray();
+        if (sorted.length % 2 == 0)
+            return ((double) sorted[sorted.length/2] + (double) sorted[sorted.length/2 - 1]) / 2;
+        else
+            return (double) sorted[sorted.length/2];
+    }
+}
\ No newline at end of file
@@ -0,0 +1,100 @@
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+// Writes the results as JSON lines: one JSON object per line, for every swap, every delay and every color
+// in the summary. The "record" field tells what the object is, for example:
+//   {"record":"swap","color":"white","side":"left","swapNum":1,"frame":123}
+//   {"record":"delay","color":"white","swapNum":1,"frameLeft":123,"frameRight":130,"delayFrames":7,"delayMs":116.666}
+//   {"record":"summary","name":"exampleData","color":"all","framesAnalyzed":1908,"swapsLeft":20,"swapsRight":20,
+//    "count":20,"lowest":5,"median":7.0,"average":7.2,"p90":9,"p99":10,"highest":10}
+// The delays in the summary are in frames, and only "count" is written if there are no delays.
+public class JsonResultWriter implements ResultWriter {
+    private final Writer out;
+    private final double milliSecondsPerFrame;
+    private final StringBuilder line = new StringBuilder(160); // Reused for every line
+
+    public JsonResultWriter(File file, double milliSecondsPerFrame) throws IOException {
+        this.out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8), ResultWriter.BUFFER_SIZE);
+        this.milliSecondsPerFrame = milliSecondsPerFrame;
+    }
+
+    @Override
+    public void swapDetected(boolean left, boolean white, int swapNum, int frame) {
+        line.setLength(0);
+        line.append("{\"record\":\"swap\",\"color\":\"").append(white ? "white" : "black")
+            .append("\",\"side\":\"").append(left ? "left" : "right")
+            .append("\",\"swapNum\":").append(swapNum).append(",\"frame\":").append(frame).append("}\n");
+        write();
+    }
+
+    @Override
+    public void delayMeasured(boolean white, int swapNum, int frameLeft, int frameRight) {
+        int delay = frameRight - frameLeft;
+        line.setLength(0);
+        line.append("{\"record\":\"delay\",\"color\":\"").append(white ? "white" : "black")
+            .append("\",\"swapNum\":").append(swapNum).append(",\"frameLeft\":").append(frameLeft)
+            .append(",\"frameRight\":").append(frameRight).append(",\"delayFrames\":").append(delay)
+            .append(",\"delayMs\":").append(Math.round(delay * milliSecondsPerFrame * 1000) / 1000.0).append("}\n");
+        write();
+    }
+
+    @Override
+    public void summary(String name, int framesAnalyzed, DelayStatistics statistics) throws IOException {
+        summaryLine(name, "white", framesAnalyzed, statistics.getSwaps(true, true), statistics.getSwaps(false, true), statistics.getWhiteDelays());
+        summaryLine(name, "black", framesAnalyzed, statistics.getSwaps(true, false), statistics.getSwaps(false, false), statistics.getBlackDelays());
+        summaryLine(name, "all", framesAnalyzed, statistics.getSwaps(true, true) + statistics.getSwaps(true, false),
+            statistics.getSwaps(false, true) + statistics.getSwaps(false, false), statistics.getAllDelays());
+    }
+
+    private void summaryLine(String name, String color, int framesAnalyzed, int swapsLeft, int swapsRight, DelayStatistics.DelaySet delays) throws IOException {
+        DelayHistogram histogram = delays.getHistogram();
+        line.setLength(0);
+        line.append("{\"record\":\"summary\",\"name\":").append(quote(name)).append(",\"color\":\"").append(color)
+            .append("\",\"framesAnalyzed\":").append(framesAnalyzed).append(",\"swapsLeft\":").append(swapsLeft)
+            .append(",\"swapsRight\":").append(swapsRight).append(",\"count\":").append(histogram.getCount());
+        if (histogram.getCount() > 0) {
+            line.append(",\"lowest\":").append(histogram.getLowest()).append(",\"median\":").append(histogram.getMedian())
+                .append(",\"average\":").append(histogram.getAverage()).append(",\"p90\":").append(histogram.getPercentile(0.9))
+                .append(",\"p99\":").append(histogram.getPercentile(0.99)).append(",\"highest\":").append(histogram.getHighest());
+        }
+        line.append("}\n");
+        out.append(line);
+    }
+
+    // Returns the value as a JSON string, with quotes, backslashes and control characters escaped.
+    static String quote(String value) {
+        StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            }
+            else if (c < 0x20) {
+                quoted.append(String.format("\\u%04x", (int) c));
+            }
+            else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    private void write() {
+        try {
+            out.append(line);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
\ No newline at end of file
@@ -1,11 +1,9 @@
+import java.io.BufferedOutputStream;
 import java.io.File;
-import java.awt.Image;
-import java.awt.Color;
-import javax.imageio.ImageIO;
-import java.awt.image.BufferedImage;
-import java.awt.image.PixelGrabber;
-import java.util.ArrayList;
-import java.util.Arrays;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
 import java.lang.Math;
 
 // How to fix setup:
@@ -19,42 +17,61 @@ import java.lang.Math;
 // A 16 minute video results in about 58.000 frame images. 
 // If each frame image file is 4KB (low res), it will take about 28 seconds to process with prints turned on,
 // and about 23 seconds with prints turned off.
+// The frames are decoded in parallel, so the processing time goes down with the number of cores.
 
 // To analyze frames in folder data/exampleData, run "Main exampleData" (after compiling).
 // To print info about white and black delays individually, run "Main exampleData print"
+// To print every delay as soon as it is measured, without keeping all swap frames in memory, run "Main exampleData stream"
+// To analyze a frame container made by PackFrames, run "Main exampleData.frames" (no JPEG files are decoded).
+// To only decode the frames around each swap (see SkippingEngine), run "Main exampleData skip"
+// To also save the results for other tools (CSV, JSON lines or binary), set resultFormat below (see ResultWriter).
 public class Main {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+        // Everything is printed through a large buffer, instead of System.out which writes every line
+        // to the console right away, so printing does not slow down the analysis.
+        // Delays printed while streaming are flushed one by one, so they still show up as soon as they are measured.
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), 1 << 16), false));
+        try {
+            analyze(args);
+        } finally {
+            System.out.flush();
+            System.setOut(console);
+        }
+    }
+
+    static void analyze(String[] args) throws IOException {
 
         // --- SETTINGS, TO BE CHANGED BY USER ---
-        boolean printSwapFrames = true; // If true, will print info about EVERY swap. Adds about 20% runtime
+        boolean printSwapFrames = true; // If true, will print info about EVERY swap
         boolean printDelaysSorted = true; 
+        String resultFormat = ""; // "csv", "jsonl" or "bin" to also write every swap, delay and the summary to data/<folder>.results.<format>
+        boolean printTimings = false; // If true, prints how long each stage (decoding, analysis, printing, ...) took at the end
+        boolean saveTimings = false; // If true, saves the same timings as JSON to data/<folder>.timings.json
+        int minSkip = 32; // When skipping, first jump after every color change (in frames)
+        int maxSkip = 64; // When skipping, longest jump. Must be shorter than the time between two swaps (180 frames at 60fps)
+        int readAheadFrames = 64; // Frame files read from disk ahead of decoding. 0 reads every file only when it is decoded
+        int readThreads = 4; // Threads reading frame files ahead. Use 1 for a spinning disk, more for a network drive
 
         // First command line option
-        String folderWithFramesName = args[0]; // This folder must be located inside the data folder, and should contains frames from video
+        String folderWithFramesName = args[0]; // This folder must be located inside the data folder, and should contains frames from video (or be a frame container)
 
         // Set by command line's optional second argument.
         boolean printBlackAndWhiteInfo = false; // If false (recommended), only prints info about ALL delays (not black/white delays)
+        boolean streaming = false; // If true, prints every delay as soon as it is measured, and does not save the individual delays
+        boolean skipping = false;  // If true, jumps over frames where the colors do not change, instead of decoding every frame
         if (args.length == 2) {
             printBlackAndWhiteInfo = args[1].equals("print") || args[1].equals("p");
+            streaming = args[1].equals("stream") || args[1].equals("s");
+            skipping = args[1].equals("skip") || args[1].equals("k");
         }
 
         // --- ACTUAL CODE STARTS ---
+        if (printTimings || saveTimings) {
+            Profiler.enable();
+        }
         String path = "data/" + folderWithFramesName;
         File folder = new File(path);  // Set this to the folder with frame files.
-        File[] listOfFiles = folder.listFiles();
-
-        if (printSwapFrames) {
-            System.out.println("Processing " + listOfFiles.length + " files...");
-        }
-
-        
-        // Frame numbers where black switches to white and vice versa, both for left and right.
-        // For example, blackToWhiteFramesLeft.get(11) = 4800 means that the eleventh swap from black to
-        // white happens at frame 4800.
-        ArrayList<Integer> blackToWhiteFramesLeft = new ArrayList<Integer>();
-        ArrayList<Integer> blackToWhiteFramesRight = new ArrayList<Integer>();
-        ArrayList<Integer> whiteToBlackFramesLeft = new ArrayList<Integer>();
-        ArrayList<Integer> whiteToBlackFramesRight = new ArrayList<Integer>();
 
         // Pixel coordinates that we analyze (leftx, lefty) and (rightx, righty)
         int leftx = 20;
@@ -62,183 +79,121 @@ public class Main {
         int rightx = 120;
         int righty = 30;
 
-        // Open first frame file and extract colors of specified pixels.
-        File firstFile = listOfFiles[0];
-        BufferedImage firstImg = null;
-        try {
-            firstImg = ImageIO.read(firstFile);
-        } catch (Exception e) { }
+        // Patch around each pixel whose average color is used, 1x1 = only the pixel (see FrameSources.open)
+        int patchWidth = 1;
+        int patchHeight = 1;
+
+        // Swaps and delays found in the frames. Every delay is saved, unless streaming.
+        DelayStatistics statistics = new DelayStatistics(!streaming);
+
+        // The colors of the specified pixels are either read from a frame container (made by PackFrames),
+        // or from the frame files in the folder (see FrameSources).
+        // Swaps from black to white and vice versa are detected in frame order, and the n:th swap to a color
+        // on the left is paired with the n:th swap to the same color on the right (see IndexPairingMatcher).
+        int frameCount;
+        double milliSecondsPerFrame;
+        try (SeekableFrameSource frames = FrameSources.open(folder, new int[] {leftx, rightx}, new int[] {lefty, righty}, patchWidth, patchHeight, readAheadFrames, readThreads);
+             ResultWriter resultWriter = resultFormat.isEmpty() ? null : ResultWriter.open(new File(path + ".results." + resultFormat), resultFormat, milliSecondsPerFrame(frames))) {
+            frameCount = frames.getFrameCount();
+            milliSecondsPerFrame = milliSecondsPerFrame(frames);
+            if (printSwapFrames) {
+                System.out.println("Processing " + frameCount + " files...");
+            }
 
-        
-        Color lastColorLeft = getPixelColor(firstImg, leftx, lefty);
-        Color lastColorRight = getPixelColor(firstImg, rightx, righty);
-        
-        // Loop through all the frames, and save the specific frame numbers where
-        // a switch from black to white or white to black happens.
-        // (For both the left and right video).
-        for (int frame = 2; frame < listOfFiles.length + 1; frame++) {
-            //println("frame: " + frame);
-    
-            // Open current frame file and extract colors of specified pixels.
-            File file = listOfFiles[frame - 1];
-            BufferedImage img = null;
-            try {
-                img = ImageIO.read(file);
-            } catch (Exception e) { }
-            Color colorLeft = getPixelColor(img, leftx, lefty);
-            Color colorRight = getPixelColor(img, rightx, righty);
-        
-            // Save the current frame is black switches to white or vice versa in left video.
-            if (isBlack(lastColorLeft) && isWhite(colorLeft)) {
-                blackToWhiteFramesLeft.add(frame);
-                if (printSwapFrames) System.out.println("Left  became white # " + blackToWhiteFramesLeft.size() + " at frame: " + frame);
+            DelayListener listener = statistics;
+            if (streaming) {
+                listener = DelayListener.all(statistics, printingDelayListener(milliSecondsPerFrame));
             }
-            else if (isWhite(lastColorLeft) && isBlack(colorLeft)) {
-                whiteToBlackFramesLeft.add(frame);
-                if (printSwapFrames) System.out.println("Left  became black # " + whiteToBlackFramesLeft.size() + " at frame: " + frame);
+            else if (printSwapFrames) {
+                listener = DelayListener.all(statistics, printingSwapListener());
             }
-
-            // Save the current frame is black switches to white or vice versa in right video.
-            if (isBlack(lastColorRight) && isWhite(colorRight)) {
-                blackToWhiteFramesRight.add(frame);
-                if (printSwapFrames) System.out.println("Right became white # " + blackToWhiteFramesRight.size() + " at frame: " + frame);
+            if (resultWriter != null) {
+                listener = DelayListener.all(listener, resultWriter);
             }
-            else if (isWhite(lastColorRight) && isBlack(colorRight)) {
-                whiteToBlackFramesRight.add(frame);
-                if (printSwapFrames) System.out.println("Right became black # " + whiteToBlackFramesRight.size() + " at frame: " + frame);
+            if (skipping) {
+                SkippingEngine engine = new SkippingEngine(minSkip, maxSkip);
+                frameCount = engine.run(frames, new IndexPairingMatcher(listener));
+                System.err.println("Decoded " + engine.getFramesRead() + " of " + frameCount + " frames.");
             }
+            else {
+                frameCount = AnalysisEngine.run(frames, new IndexPairingMatcher(listener));
+            }
+            if (resultWriter != null) {
+                resultWriter.summary(folderWithFramesName, frameCount, statistics);
+            }
+        }
 
-            // Save current colors 
-            lastColorLeft = colorLeft;
-            lastColorRight = colorRight;
+        long reportStart = Profiler.start();
+        if (streaming) {
+            printStreamingSummary(folderWithFramesName, frameCount, statistics, milliSecondsPerFrame);
+            reportTimings(reportStart, path, printTimings, saveTimings);
+            return;
         }
 
         if (printSwapFrames) {
             System.out.println("Processing complete!");
         }
 
-        ArrayList<Integer> whiteDelays = new ArrayList<Integer>();
-        ArrayList<Integer> blackDelays = new ArrayList<Integer>();
+        DelayStatistics.DelaySet white = statistics.getWhiteDelays();
+        DelayStatistics.DelaySet black = statistics.getBlackDelays();
+        DelayStatistics.DelaySet all = statistics.getAllDelays();
+        IntList whiteDelays = white.getDelays();
+        IntList blackDelays = black.getDelays();
+        IntList allDelays = all.getDelays(); // White delays followed by black delays
 
-        int leastAmountOfSwapsBlackToWhite = Math.min(blackToWhiteFramesLeft.size(), blackToWhiteFramesRight.size());
-        int leastAmountOfSwapsWhiteToBlack = Math.min(whiteToBlackFramesLeft.size(), whiteToBlackFramesRight.size());
+        // Averages, medians and percentages are calculated from histograms of the delays (see DelayHistogram),
+        // without sorting or scanning the lists of delays.
+        DelayHistogram whiteHistogram = white.getHistogram();
+        DelayHistogram blackHistogram = black.getHistogram();
+        DelayHistogram allHistogram = all.getHistogram();
 
         // Lowest/highest delay
-        int lowestWhiteDelay = 1000000;
-        int highestWhiteDelay = 0;
-        int lowestBlackDelay = 1000000;
-        int highestBlackDelay = 0;
-        int lowestDelay = 0;
-        int highestDelay = 0;
- 
-        // Lowest/highest delay frame numbers. One per each of the above.
-        int firstFrame_lowestWhiteDelay = 0;
-        int firstFrame_highestWhiteDelay = 0;
-        int firstFrame_lowestBlackDelay = 0;
-        int firstFrame_highestBlackDelay = 0;
-        int firstFrame_lowestDelay = 0;
-        int firstFrame_highestDelay = 0;
+        int lowestWhiteDelay = white.getLowest();
+        int highestWhiteDelay = white.getHighest();
+        int lowestBlackDelay = black.getLowest();
+        int highestBlackDelay = black.getHighest();
+        int lowestDelay = all.getLowest();
+        int highestDelay = all.getHighest();
 
         // Lowest/highest delay frame numbers. One per each of the above.
-        int lastFrame_lowestWhiteDelay = 0;
-        int lastFrame_highestWhiteDelay = 0;
-        int lastFrame_lowestBlackDelay = 0;
-        int lastFrame_highestBlackDelay = 0;
-        int lastFrame_lowestDelay = 0;
-        int lastFrame_highestDelay = 0;
-
-        // Loop through all black to white swaps, and calculate
-        // the difference of frame numbers between left and right, which is the delay in frames.
-        for (int swapNum = 0; swapNum < leastAmountOfSwapsBlackToWhite; swapNum++) {
-            int frameThatLeftBecameWhite = blackToWhiteFramesLeft.get(swapNum);
-            int frameThatRightBecameWhite = blackToWhiteFramesRight.get(swapNum);
-
-            int whiteDelay = frameThatRightBecameWhite - frameThatLeftBecameWhite;
-            whiteDelays.add(whiteDelay);
-
-            // Update lowest and highest white delays
-            if (whiteDelay < lowestWhiteDelay) {
-                lowestWhiteDelay = whiteDelay;
-                firstFrame_lowestWhiteDelay = frameThatLeftBecameWhite;
-                lastFrame_lowestWhiteDelay = frameThatRightBecameWhite;
-            }
-            if (whiteDelay > highestWhiteDelay) {
-                highestWhiteDelay = whiteDelay;
-                firstFrame_highestWhiteDelay = frameThatLeftBecameWhite;
-                lastFrame_highestWhiteDelay = frameThatRightBecameWhite;
-            }
-        }
-
-        // Do the same for white to black switches.
-        for (int swapNum = 0; swapNum < leastAmountOfSwapsWhiteToBlack; swapNum++) {
-            int frameThatLeftBecameBlack = whiteToBlackFramesLeft.get(swapNum);
-            int frameThatRightBecameBlack = whiteToBlackFramesRight.get(swapNum);
-
-            int blackDelay = frameThatRightBecameBlack - frameThatLeftBecameBlack;
-            blackDelays.add(blackDelay);
+        int firstFrame_lowestWhiteDelay = white.getFirstFrameOfLowest();
+        int firstFrame_highestWhiteDelay = white.getFirstFrameOfHighest();
+        int firstFrame_lowestBlackDelay = black.getFirstFrameOfLowest();
+        int firstFrame_highestBlackDelay = black.getFirstFrameOfHighest();
+        int firstFrame_lowestDelay = all.getFirstFrameOfLowest();
+        int firstFrame_highestDelay = all.getFirstFrameOfHighest();
 
-            // Update lowest and highest black delays
-            if (blackDelay < lowestBlackDelay) {
-                lowestBlackDelay = blackDelay;
-                firstFrame_lowestBlackDelay = frameThatLeftBecameBlack;
-                lastFrame_lowestBlackDelay = frameThatRightBecameBlack;
-            }
-            if (blackDelay > highestBlackDelay) {
-                highestBlackDelay = blackDelay;
-                firstFrame_highestBlackDelay = frameThatLeftBecameBlack;
-                lastFrame_highestBlackDelay = frameThatRightBecameBlack;
-            }
-        }
-
-        // Add white and black delays to allDelays
-        ArrayList<Integer> allDelays = new ArrayList<Integer>(whiteDelays);
-        allDelays.addAll(blackDelays);
+        // Lowest/highest delay frame numbers. One per each of the above.
+        int lastFrame_lowestWhiteDelay = white.getLastFrameOfLowest();
+        int lastFrame_highestWhiteDelay = white.getLastFrameOfHighest();
+        int lastFrame_lowestBlackDelay = black.getLastFrameOfLowest();
+        int lastFrame_highestBlackDelay = black.getLastFrameOfHighest();
+        int lastFrame_lowestDelay = all.getLastFrameOfLowest();
+        int lastFrame_highestDelay = all.getLastFrameOfHighest();
 
-        // Save global lowest and highest delay 
-        if (lowestWhiteDelay < lowestBlackDelay) {
-            lowestDelay = lowestWhiteDelay;
-            firstFrame_lowestDelay = firstFrame_lowestWhiteDelay;
-            lastFrame_lowestDelay = lastFrame_lowestWhiteDelay;
-        }
-        else {
-            lowestDelay = lowestBlackDelay;
-            firstFrame_lowestDelay = firstFrame_lowestBlackDelay;
-            lastFrame_lowestDelay = lastFrame_lowestBlackDelay;
-        }
-        if (highestWhiteDelay > highestBlackDelay) {
-            highestDelay = highestWhiteDelay;
-            firstFrame_highestDelay = firstFrame_highestWhiteDelay;
-            lastFrame_highestDelay = lastFrame_highestWhiteDelay;
-        }
-        else {
-            highestDelay = highestBlackDelay;
-            firstFrame_highestDelay = firstFrame_highestBlackDelay;
-            lastFrame_highestDelay = lastFrame_highestBlackDelay;
-        }
-        
         // Lowest and highest frame delays in milliseconds
-        int lowestWhiteMilliSecDelay = (int) (lowestWhiteDelay * 16.6666);
-        int highestWhiteMilliSecDelay = (int) (highestWhiteDelay * 16.6666);
-        int lowestBlackMilliSecDelay = (int) (lowestBlackDelay * 16.6666);
-        int highestBlackMilliSecDelay = (int) (highestBlackDelay * 16.6666);
-        int lowestMilliSecDelay = (int) (lowestDelay * 16.6666);
-        int highestMilliSecDelay = (int) (highestDelay * 16.6666);
+        int lowestWhiteMilliSecDelay = (int) (lowestWhiteDelay * milliSecondsPerFrame);
+        int highestWhiteMilliSecDelay = (int) (highestWhiteDelay * milliSecondsPerFrame);
+        int lowestBlackMilliSecDelay = (int) (lowestBlackDelay * milliSecondsPerFrame);
+        int highestBlackMilliSecDelay = (int) (highestBlackDelay * milliSecondsPerFrame);
+        int lowestMilliSecDelay = (int) (lowestDelay * milliSecondsPerFrame);
+        int highestMilliSecDelay = (int) (highestDelay * milliSecondsPerFrame);
 
         // Average delays in frames and milliseconds
-        double averageWhiteFrameDelay = (double) getAverage(whiteDelays);
-        double averageBlackFrameDelay = (double) getAverage(blackDelays);
+        double averageWhiteFrameDelay = whiteHistogram.getAverage();
+        double averageBlackFrameDelay = blackHistogram.getAverage();
         double averageFrameDelay = (averageWhiteFrameDelay + averageBlackFrameDelay) / 2;
-        int averageWhiteMilliSecDelay = (int) (averageWhiteFrameDelay * 16.6666);
-        int averageBlackMilliSecDelay = (int) (averageBlackFrameDelay * 16.6666);
-        int averageMilliSecDelay = (int) ((int) averageFrameDelay * 16.6666);
+        int averageWhiteMilliSecDelay = (int) (averageWhiteFrameDelay * milliSecondsPerFrame);
+        int averageBlackMilliSecDelay = (int) (averageBlackFrameDelay * milliSecondsPerFrame);
+        int averageMilliSecDelay = (int) ((int) averageFrameDelay * milliSecondsPerFrame);
 
         // Median delays in frames and milliseconds
-        double medianWhiteFrameDelay = (double) getMedian(whiteDelays);
-        double medianBlackFrameDelay = (double) getMedian(blackDelays);
-        double medianFrameDelay = (double) getMedian(allDelays);
-        int medianWhiteMilliSecDelay = (int) (medianWhiteFrameDelay * 16.6666); 
-        int medianBlackMilliSecDelay = (int) (medianBlackFrameDelay * 16.6666);
-        int medianMilliSecDelay = (int) ((int) medianFrameDelay * 16.6666);
+        double medianWhiteFrameDelay = whiteHistogram.getMedian();
+        double medianBlackFrameDelay = blackHistogram.getMedian();
+        double medianFrameDelay = allHistogram.getMedian();
+        int medianWhiteMilliSecDelay = (int) (medianWhiteFrameDelay * milliSecondsPerFrame); 
+        int medianBlackMilliSecDelay = (int) (medianBlackFrameDelay * milliSecondsPerFrame);
+        int medianMilliSecDelay = (int) ((int) medianFrameDelay * milliSecondsPerFrame);
 
         if (printDelaysSorted) {
             if (printBlackAndWhiteInfo) {
@@ -246,12 +201,10 @@ public class Main {
                 System.out.println ("### ALL WHITE DELAYS SORTED ###");
                 System.out.println ("");
     
-                Integer[] whiteDelaysArray = new Integer[whiteDelays.size()];
-                whiteDelaysArray = whiteDelays.toArray(whiteDelaysArray);
-                Arrays.sort(whiteDelaysArray);
+                int[] whiteDelaysArray = whiteDelays.toSortedArray();
                 for (int i = 0; i < whiteDelaysArray.length; i++) {
                     int whiteDelayInFrames = whiteDelaysArray[i];
-                    int whiteDelayInMilliSeconds = (int) (whiteDelayInFrames * 16.6666);
+                    int whiteDelayInMilliSeconds = (int) (whiteDelayInFrames * milliSecondsPerFrame);
                     System.out.print("white delay size-order # " + (i+1) + ":\t " + whiteDelayInFrames + " frames\t= " + whiteDelayInMilliSeconds + "ms");
                     if (i > 0 && whiteDelaysArray[i] > whiteDelaysArray[i-1] * 2) {
                         System.out.println("\t(doubled)");
@@ -265,12 +218,10 @@ public class Main {
                 System.out.println ("### ALL BLACK DELAYS SORTED ###");
                 System.out.println ("");
     
-                Integer[] blackDelaysArray = new Integer[blackDelays.size()];
-                blackDelaysArray = whiteDelays.toArray(blackDelaysArray);
-                Arrays.sort(blackDelaysArray);
+                int[] blackDelaysArray = blackDelays.toSortedArray();
                 for (int i = 0; i < blackDelaysArray.length; i++) {
                     int blackDelayInFrames = blackDelaysArray[i];
-                    int blackDelayInMilliSeconds = (int) (blackDelayInFrames * 16.6666);
+                    int blackDelayInMilliSeconds = (int) (blackDelayInFrames * milliSecondsPerFrame);
                     System.out.print("black delay size-order # " + (i+1) + ":\t " + blackDelayInFrames + " frames\t= " + blackDelayInMilliSeconds + "ms");
                     if (i > 0 && blackDelaysArray[i] > blackDelaysArray[i-1] * 2) {
                         System.out.println("\t(doubled)");
@@ -285,12 +236,10 @@ public class Main {
             System.out.println ("### ALL DELAYS SORTED ###");
             System.out.println ("");
 
-            Integer[] allDelaysArray = new Integer[allDelays.size()];
-            allDelaysArray = allDelays.toArray(allDelaysArray);
-            Arrays.sort(allDelaysArray);
+            int[] allDelaysArray = allDelays.toSortedArray();
             for (int i = 0; i < allDelaysArray.length; i++) {
                 int delayInFrames = allDelaysArray[i];
-                int delayInMilliSeconds = (int) (delayInFrames * 16.6666);
+                int delayInMilliSeconds = (int) (delayInFrames * milliSecondsPerFrame);
                 System.out.println(delayInMilliSeconds);
             }
 
@@ -299,7 +248,7 @@ public class Main {
             System.out.println ("");
 
             for (int i = 0; i < allDelays.size(); i++) {
-                int delayInMilliSeconds = (int) (allDelays.get(i) * 16.6666);
+                int delayInMilliSeconds = (int) (allDelays.get(i) * milliSecondsPerFrame);
                 System.out.println(delayInMilliSeconds);
             }
         }
@@ -311,45 +260,45 @@ public class Main {
             System.out.println("");
 
             System.out.println("File name: " + folderWithFramesName);
-            System.out.println("Total frame files analyzed: " + listOfFiles.length);
+            System.out.println("Total frame files analyzed: " + frameCount);
             System.out.println("--- TOTAL: white delay ---");
-            System.out.println("Flips from black to white left: " + blackToWhiteFramesLeft.size() + ", right: " + blackToWhiteFramesRight.size());
+            System.out.println("Flips from black to white left: " + statistics.getSwaps(true, true) + ", right: " + statistics.getSwaps(false, true));
             System.out.println("Lowest white delay: " + lowestWhiteMilliSecDelay + "ms = " + lowestWhiteDelay + " frames, left became white at " + firstFrame_lowestWhiteDelay + ", right at " + lastFrame_lowestWhiteDelay);
             System.out.println("Highest white delay: " + highestWhiteMilliSecDelay + "ms = " + highestWhiteDelay + " frames, left became white at " + firstFrame_highestWhiteDelay + ", right at " + lastFrame_highestWhiteDelay);
 
             System.out.println("");
             System.out.println("--- TOTAL: black delay ---");
-            System.out.println("Flips from white to black left: " + whiteToBlackFramesLeft.size() + ", right: " + whiteToBlackFramesRight.size());
+            System.out.println("Flips from white to black left: " + statistics.getSwaps(true, false) + ", right: " + statistics.getSwaps(false, false));
             System.out.println("Lowest black delay: " + lowestBlackMilliSecDelay + "ms = " + lowestBlackDelay + " frames, left became black at " + firstFrame_lowestBlackDelay + ", right at " + lastFrame_lowestBlackDelay);
             System.out.println("Highest black delay: " + highestBlackMilliSecDelay + "ms = " + highestBlackDelay + " frames, left became black at " + firstFrame_highestBlackDelay + ", right at " + lastFrame_highestBlackDelay);
 
             System.out.println("");
             System.out.println("--- AVERAGE: white delay ---");
             System.out.println("Average delay: " + (int) averageWhiteFrameDelay + " frames = " + averageWhiteMilliSecDelay + " ms");
-            System.out.println(pctWithinPctRangeOfValue(whiteDelays, averageWhiteFrameDelay, 0.75, 1.25) + "% of delays were within 25% of average.");
-            System.out.println(pctWithinPctRangeOfValue(whiteDelays, averageWhiteFrameDelay, 0.5, 1.5) + "% of delays were within 50% of average.");
-            System.out.println(pctWithinPctRangeOfValue(whiteDelays, averageWhiteFrameDelay, 0.2, 1.8) + "% of delays were within 80% of average.");
+            System.out.println(pctWithinPctRangeOfValue(whiteHistogram, averageWhiteFrameDelay, 0.75, 1.25) + "% of delays were within 25% of average.");
+            System.out.println(pctWithinPctRangeOfValue(whiteHistogram, averageWhiteFrameDelay, 0.5, 1.5) + "% of delays were within 50% of average.");
+            System.out.println(pctWithinPctRangeOfValue(whiteHistogram, averageWhiteFrameDelay, 0.2, 1.8) + "% of delays were within 80% of average.");
 
             System.out.println("");
             System.out.println("--- AVERAGE: black delay ---");
             System.out.println("Average delay: " + (int) averageBlackFrameDelay + " frames = " + averageBlackMilliSecDelay + " ms");
-            System.out.println(pctWithinPctRangeOfValue(blackDelays, averageBlackFrameDelay, 0.75, 1.25) + "% of delays were within 25% of average.");
-            System.out.println(pctWithinPctRangeOfValue(blackDelays, averageBlackFrameDelay, 0.5, 1.5) + "% of delays were within 50% of average.");
-            System.out.println(pctWithinPctRangeOfValue(blackDelays, averageBlackFrameDelay, 0.2, 1.8) + "% of delays were within 80% of average.");
+            System.out.println(pctWithinPctRangeOfValue(blackHistogram, averageBlackFrameDelay, 0.75, 1.25) + "% of delays were within 25% of average.");
+            System.out.println(pctWithinPctRangeOfValue(blackHistogram, averageBlackFrameDelay, 0.5, 1.5) + "% of delays were within 50% of average.");
+            System.out.println(pctWithinPctRangeOfValue(blackHistogram, averageBlackFrameDelay, 0.2, 1.8) + "% of delays were within 80% of average.");
 
             System.out.println("");
             System.out.println("--- MEDIAN: white delay ---");
             System.out.println("Median delay: " + (int) medianWhiteFrameDelay + " frames = " + medianWhiteMilliSecDelay + " ms");
-            System.out.println(pctWithinPctRangeOfValue(whiteDelays, medianWhiteFrameDelay, 0.75, 1.25) + "% of delays were within 25% of median.");
-            System.out.println(pctWithinPctRangeOfValue(whiteDelays, medianWhiteFrameDelay, 0.5, 1.5) + "% of delays were within 50% of median.");
-            System.out.println(pctWithinPctRangeOfValue(whiteDelays, medianWhiteFrameDelay, 0.2, 1.8) + "% of delays were within 80% of median.");
+            System.out.println(pctWithinPctRangeOfValue(whiteHistogram, medianWhiteFrameDelay, 0.75, 1.25) + "% of delays were within 25% of median.");
+            System.out.println(pctWithinPctRangeOfValue(whiteHistogram, medianWhiteFrameDelay, 0.5, 1.5) + "% of delays were within 50% of median.");
+            System.out.println(pctWithinPctRangeOfValue(whiteHistogram, medianWhiteFrameDelay, 0.2, 1.8) + "% of delays were within 80% of median.");
 
             System.out.println("");
             System.out.println("--- MEDIAN: black delay ---");
             System.out.println("Median delay: " + (int) medianBlackFrameDelay + " frames = " + medianBlackMilliSecDelay + " ms");
-            System.out.println(pctWithinPctRangeOfValue(blackDelays, medianBlackFrameDelay, 0.75, 1.25) + "% of delays were within 25% of median.");
-            System.out.println(pctWithinPctRangeOfValue(blackDelays, medianBlackFrameDelay, 0.5, 1.5) + "% of delays were within 50% of median.");
-            System.out.println(pctWithinPctRangeOfValue(blackDelays, medianBlackFrameDelay, 0.2, 1.8) + "% of delays were within 80% of median.");
+            System.out.println(pctWithinPctRangeOfValue(blackHistogram, medianBlackFrameDelay, 0.75, 1.25) + "% of delays were within 25% of median.");
+            System.out.println(pctWithinPctRangeOfValue(blackHistogram, medianBlackFrameDelay, 0.5, 1.5) + "% of delays were within 50% of median.");
+            System.out.println(pctWithinPctRangeOfValue(blackHistogram, medianBlackFrameDelay, 0.2, 1.8) + "% of delays were within 80% of median.");
         }
         
         System.out.println("");
@@ -358,102 +307,107 @@ public class Main {
         System.out.println("");
 
         System.out.println("File name: " + folderWithFramesName);
-        System.out.println("Total frame files analyzed: " + listOfFiles.length);
+        System.out.println("Total frame files analyzed: " + frameCount);
         System.out.println("--- TOTAL ---");
         System.out.println("Delays detected: " + allDelays.size());
-        System.out.println("Flips from black to white left: " + blackToWhiteFramesLeft.size() + ", right: " + blackToWhiteFramesRight.size());
-        System.out.println("Flips from white to black left: " + whiteToBlackFramesLeft.size() + ", right: " + whiteToBlackFramesRight.size());
+        System.out.println("Flips from black to white left: " + statistics.getSwaps(true, true) + ", right: " + statistics.getSwaps(false, true));
+        System.out.println("Flips from white to black left: " + statistics.getSwaps(true, false) + ", right: " + statistics.getSwaps(false, false));
         System.out.println("Lowest delay: " + lowestMilliSecDelay + "ms = " + lowestDelay + " frames, left flipped at " + firstFrame_lowestDelay + ", right at " + lastFrame_lowestDelay);
         System.out.println("Highest delay: " + highestMilliSecDelay + "ms = " + highestDelay + " frames, left flipped at " + firstFrame_highestDelay + ", right at " + lastFrame_highestDelay);
 
         System.out.println("");
         System.out.println("--- AVERAGE ---");
         System.out.println("Average delay: " + (int) averageFrameDelay + " frames = " + averageMilliSecDelay + " ms");
-        System.out.println(pctWithinPctRangeOfValue(allDelays, averageFrameDelay, 0.75, 1.25) + "% of delays were within 25% of average.");
-        System.out.println(pctWithinPctRangeOfValue(allDelays, averageFrameDelay, 0.5, 1.5) + "% of delays were within 50% of average.");
-        System.out.println(pctWithinPctRangeOfValue(allDelays, averageFrameDelay, 0.2, 1.8) + "% of delays were within 80% of average.");
+        System.out.println(pctWithinPctRangeOfValue(allHistogram, averageFrameDelay, 0.75, 1.25) + "% of delays were within 25% of average.");
+        System.out.println(pctWithinPctRangeOfValue(allHistogram, averageFrameDelay, 0.5, 1.5) + "% of delays were within 50% of average.");
+        System.out.println(pctWithinPctRangeOfValue(allHistogram, averageFrameDelay, 0.2, 1.8) + "% of delays were within 80% of average.");
 
         System.out.println("");
         System.out.println("--- MEDIAN ---");
         System.out.println("Median delay: " + (int) medianFrameDelay + " frames = " + medianMilliSecDelay + " ms");
-        System.out.println(pctWithinPctRangeOfValue(allDelays, medianFrameDelay, 0.75, 1.25) + "% of delays were within 25% of median.");
-        System.out.println(pctWithinPctRangeOfValue(allDelays, medianFrameDelay, 0.5, 1.5) + "% of delays were within 50% of median.");
-        System.out.println(pctWithinPctRangeOfValue(allDelays, medianFrameDelay, 0.2, 1.8) + "% of delays were within 80% of median.");
+        System.out.println(pctWithinPctRangeOfValue(allHistogram, medianFrameDelay, 0.75, 1.25) + "% of delays were within 25% of median.");
+        System.out.println(pctWithinPctRangeOfValue(allHistogram, medianFrameDelay, 0.5, 1.5) + "% of delays were within 50% of median.");
+        System.out.println(pctWithinPctRangeOfValue(allHistogram, medianFrameDelay, 0.2, 1.8) + "% of delays were within 80% of median.");
+        reportTimings(reportStart, path, printTimings, saveTimings);
     }
 
-    // Returns the percentage amount (an int between 0 and 100) of the list values that are within 
-    // a certain percentage of the list average.
-    // Example: pctWithinPctRangeOfAverage(list, 0.5, 1.5) gives percentage amount of 
-    // values in list that are between 50% and 150% of the average value.
-    static int pctWithinPctRangeOfValue(ArrayList<Integer> list, double comparisonValue, double lower, double upper) {
-        int countWithinRange = 0;
-        for (int i = 0; i < list.size(); i++) {
-            if (list.get(i) >= lower * comparisonValue && list.get(i) <= upper * comparisonValue) {
-                countWithinRange++;
-            }
+    // Ends the measurement of the statistics and printing, and prints or saves the timings of all stages (see Profiler).
+    static void reportTimings(long reportStart, String path, boolean print, boolean save) throws IOException {
+        if (!Profiler.isEnabled()) {
+            return;
+        }
+        System.out.flush();
+        Profiler.REPORT.record(reportStart);
+        if (print) {
+            Profiler.printReport();
+        }
+        if (save) {
+            Profiler.writeJson(path, new File(path + ".timings.json"));
         }
-        double pctWithinRange = (double) countWithinRange / (double) list.size();
-        return (int) (((double) 100) * pctWithinRange);
     }
 
-    static boolean oneIsBlackOneIsWhite(Color c1, Color c2) {
-        return (isBlack(c1) && isWhite(c2)) || (isWhite(c1) && isBlack(c2));
-    }
+    // Returns a listener that prints every swap, as soon as it is detected.
+    static DelayListener printingSwapListener() {
+        return new DelayListener() {
+            @Override
+            public void swapDetected(boolean left, boolean white, int swapNum, int frame) {
+                System.out.println((left ? "Left " : "Right") + " became " + (white ? "white" : "black") + " # " + swapNum + " at frame: " + frame);
+            }
 
-    static boolean isBlack(Color c) {
-        return c.getRed() < 40 && c.getGreen() < 40 && c.getBlue() < 40;
+            @Override
+            public void delayMeasured(boolean white, int swapNum, int frameLeft, int frameRight) { }
+        };
     }
-    
-    static boolean isWhite(Color c) {
-        return c.getRed() > 230 && c.getGreen() > 230 && c.getBlue() > 230;
+
+    // Milliseconds per frame: 16.6666 for videos recorded in 60fps (like all frame folders),
+    // or from the fps saved in a frame container (see PackFrames).
+    static double milliSecondsPerFrame(SeekableFrameSource frames) {
+        double fps = frames.getFps();
+        return fps > 0 && fps != 60 ? 1000 / fps : 16.6666;
     }
 
-    static double getAverage(ArrayList<Integer> list) {
-        return (double) getSum(list) / list.size();
-    }  
+    // Returns a listener that prints every delay, as soon as both left and right have flipped.
+    // Every line is flushed, since System.out is buffered (see main) and a delay is only measured every few seconds.
+    // milliSecondsPerFrame is 16.6666 for videos recorded in 60fps.
+    static DelayListener printingDelayListener(double milliSecondsPerFrame) {
+        return (white, swapNum, frameLeft, frameRight) -> {
+            int delay = frameRight - frameLeft;
+            int delayInMilliSeconds = (int) (delay * milliSecondsPerFrame);
+            System.out.println((white ? "White" : "Black") + " delay # " + swapNum + ": " + delayInMilliSeconds + "ms = " + delay + " frames, left flipped at " + frameLeft + ", right at " + frameRight);
+            System.out.flush();
+        };
+    }
 
-    static int getSum(ArrayList<Integer> list) {
-        int sum = 0; 
-        for (int i = 0; i < list.size(); i++) {
-            sum += list.get(i);
+    // Prints a summary of all delays, without the individual delays (which are not kept when streaming).
+    static void printStreamingSummary(String name, int framesAnalyzed, DelayStatistics statistics, double milliSecondsPerFrame) {
+        DelayStatistics.DelaySet all = statistics.getAllDelays();
+        DelayHistogram allDelays = all.getHistogram();
+        System.out.println("");
+        System.out.println("--------------------------");
+        System.out.println("@@@ SUMMARY ALL DELAYS (STREAMING) @@@");
+        System.out.println("");
+        System.out.println("File name: " + name);
+        System.out.println("Total frames analyzed: " + framesAnalyzed);
+        System.out.println("Delays detected: " + allDelays.getCount());
+        System.out.println("Flips from black to white left: " + statistics.getSwaps(true, true) + ", right: " + statistics.getSwaps(false, true));
+        System.out.println("Flips from white to black left: " + statistics.getSwaps(true, false) + ", right: " + statistics.getSwaps(false, false));
+        if (allDelays.getCount() == 0) {
+            return;
         }
-        return sum;
-    }    
-
-    // Part of this function was made by stackoverflow user Mike B.
-    // Function copied from https://stackoverflow.com/questions/11955728/how-to-calculate-the-median-of-an-array/28822243
-    static double getMedian(ArrayList<Integer> list) {
-        Integer[] numArray = new Integer[list.size()];
-        numArray = list.toArray(numArray);
-        Arrays.sort(numArray);
-
-        double median;
-        if (numArray.length % 2 == 0)
-            median = ((double)numArray[numArray.length/2] + (double)numArray[numArray.length/2 - 1])/2;
-        else
-            median = (double) numArray[numArray.length/2];
-        return median;
+        System.out.println("Lowest delay: " + (int) (all.getLowest() * milliSecondsPerFrame) + "ms = " + all.getLowest() + " frames, left flipped at " + all.getFirstFrameOfLowest() + ", right at " + all.getLastFrameOfLowest());
+        System.out.println("Highest delay: " + (int) (all.getHighest() * milliSecondsPerFrame) + "ms = " + all.getHighest() + " frames, left flipped at " + all.getFirstFrameOfHighest() + ", right at " + all.getLastFrameOfHighest());
+        System.out.println("Average delay: " + (int) allDelays.getAverage() + " frames = " + (int) (allDelays.getAverage() * milliSecondsPerFrame) + " ms");
+        System.out.println("Median delay: " + (int) allDelays.getMedian() + " frames = " + (int) (allDelays.getMedian() * milliSecondsPerFrame) + " ms");
+        System.out.println("90th percentile: " + allDelays.getPercentile(0.9) + " frames = " + (int) (allDelays.getPercentile(0.9) * milliSecondsPerFrame) + " ms");
+        System.out.println("99th percentile: " + allDelays.getPercentile(0.99) + " frames = " + (int) (allDelays.getPercentile(0.99) * milliSecondsPerFrame) + " ms");
     }
 
-    // Function made by stackoverflow user Jared Rummler.
-    // https://stackoverflow.com/questions/47500296/how-to-get-the-color-of-a-specific-pixel-of-an-image-java
-    private static Color getPixelColor(Image image, int x, int y) {
-        if (image instanceof BufferedImage) {
-            return new Color(((BufferedImage) image).getRGB(x, y));
-        }
-        int width = image.getWidth(null);
-        int height = image.getHeight(null);
-        int[] pixels = new int[width * height];
-        PixelGrabber grabber = new PixelGrabber(image, 0, 0, width, height, pixels, 0, width);
-        try {
-            grabber.grabPixels();
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        }
-        int c = pixels[x * width + y];
-        int  red = (c & 0x00ff0000) >> 16;
-        int  green = (c & 0x0000ff00) >> 8;
-        int  blue = c & 0x000000ff;
-        return new Color(red, green, blue);
+    // Returns the percentage amount (an int between 0 and 100) of the delays that are within 
+    // a certain percentage of comparisonValue.
+    // Example: pctWithinPctRangeOfValue(delays, average, 0.5, 1.5) gives percentage amount of 
+    // delays that are between 50% and 150% of the average value.
+    static int pctWithinPctRangeOfValue(DelayHistogram delays, double comparisonValue, double lower, double upper) {
+        double pctWithinRange = delays.getFractionWithin(comparisonValue, lower, upper);
+        return (int) (((double) 100) * pctWithinRange);
     }
 }
\ No newline at end of file
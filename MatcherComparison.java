@@ -0,0 +1,89 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+// Compares the delays found by two DelayMatchers in the same frames, usually IndexPairingMatcher (Main) and
+// WaitForNextMatcher (WaitForNext). The n:th white delay of the first matcher is compared with the n:th white
+// delay of the second (and the same for black), and every pair with different frames is saved as a Disagreement.
+// If Main misses a swap, it pairs the wrong swaps from then on, so the first disagreement shows where it started.
+// Delays are only kept until the other matcher has found its delay with the same number.
+public class MatcherComparison {
+    private final ColorComparison white = new ColorComparison(true);
+    private final ColorComparison black = new ColorComparison(false);
+    private final List<Disagreement> disagreements = new ArrayList<Disagreement>();
+    private int comparedDelays = 0;
+
+    // Gives the delays of the first matcher to this comparison.
+    public DelayListener getFirstListener() {
+        return (isWhite, swapNum, frameLeft, frameRight) -> (isWhite ? white : black).delayMeasured(0, frameLeft, frameRight);
+    }
+
+    // Gives the delays of the second matcher to this comparison.
+    public DelayListener getSecondListener() {
+        return (isWhite, swapNum, frameLeft, frameRight) -> (isWhite ? white : black).delayMeasured(1, frameLeft, frameRight);
+    }
+
+    // Delays with the same number but different frames, in the order they were found.
+    public List<Disagreement> getDisagreements() {
+        return disagreements;
+    }
+
+    // Amount of delays that were found by both matchers (and compared).
+    public int getComparedDelays() {
+        return comparedDelays;
+    }
+
+    // Amount of white (white = true) or black delays found by the first (first = true) or second matcher.
+    public int getDelayCount(boolean first, boolean isWhite) {
+        return (isWhite ? white : black).counts[first ? 0 : 1];
+    }
+
+    // A delay with the same number (and color) that the two matchers found at different frames.
+    public static class Disagreement {
+        public final boolean white;
+        public final int swapNum;
+        public final int firstFrameLeft;
+        public final int firstFrameRight;
+        public final int secondFrameLeft;
+        public final int secondFrameRight;
+
+        Disagreement(boolean white, int swapNum, int firstFrameLeft, int firstFrameRight, int secondFrameLeft, int secondFrameRight) {
+            this.white = white;
+            this.swapNum = swapNum;
+            this.firstFrameLeft = firstFrameLeft;
+            this.firstFrameRight = firstFrameRight;
+            this.secondFrameLeft = secondFrameLeft;
+            this.secondFrameRight = secondFrameRight;
+        }
+    }
+
+    // Compares the delays of one color. pending[m] holds the frames {left, right} of the delays that
+    // matcher m has found, but the other matcher has not found yet.
+    private class ColorComparison {
+        private final boolean white;
+        private final int[] counts = new int[2];
+        private final List<ArrayDeque<int[]>> pending = List.of(new ArrayDeque<int[]>(), new ArrayDeque<int[]>());
+
+        ColorComparison(boolean white) {
+            this.white = white;
+        }
+
+        void delayMeasured(int matcher, int frameLeft, int frameRight) {
+            counts[matcher]++;
+            ArrayDeque<int[]> other = pending.get(1 - matcher);
+            if (other.isEmpty()) {
+                pending.get(matcher).add(new int[] {frameLeft, frameRight});
+                return;
+            }
+
+            int[] otherFrames = other.remove();
+            int[] first = matcher == 0 ? new int[] {frameLeft, frameRight} : otherFrames;
+            int[] second = matcher == 0 ? otherFrames : new int[] {frameLeft, frameRight};
+            comparedDelays++;
+            if (first[0] != second[0] || first[1] != second[1]) {
+                int swapNum = Math.min(counts[0], counts[1]);
+                disagreements.add(new Disagreement(white, swapNum, first[0], first[1], second[0], second[1]));
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,166 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Combines the binary result files of several runs, for example runs that were analyzed on different machines,
+// without decoding any frames again. The result files are written by Main (with resultFormat "bin") and by
+// Batch (with saveResults), see BinaryResultWriter.
+// Prints a summary per run and per scenario (all runs of a scenario pooled, like Batch), and writes all runs to
+// one merged result file, which can be merged again with other result files (also into the same file name:
+// the merged file is written to a temporary file first, and only replaces the old one once all files have been read).
+// A run that is in several of the files (by name) is only used once.
+
+// To merge data/zoom_1.results.bin and data/zoom_2.results.bin, run "MergeResults zoom_1.results.bin zoom_2.results.bin"
+// (after compiling). Arguments can also be glob patterns within the data folder, for example "MergeResults *.results.bin".
+public class MergeResults {
+    public static void main(String[] args) throws IOException {
+
+        // --- SETTINGS, TO BE CHANGED BY USER ---
+        String mergedFileName = "merged.results.bin"; // All runs are written to this file in the data folder
+
+        // --- ACTUAL CODE STARTS ---
+        File mergedFile = new File("data/" + mergedFileName);
+        List<File> files = findFiles(args);
+        if (files.isEmpty()) {
+            System.out.println("No result files found in the data folder.");
+            return;
+        }
+
+        Map<String, DelayHistogram> scenarioDelays = new LinkedHashMap<String, DelayHistogram>();
+        Map<String, Integer> scenarioRuns = new LinkedHashMap<String, Integer>();
+        Set<String> runNames = new HashSet<String>();
+        BinaryResultWriter merged = null;
+        double milliSecondsPerFrame = 0;
+        File tempFile = new File(mergedFile.getPath() + ".tmp");
+
+        System.out.println("Merging " + files.size() + " result files into " + mergedFile + "...");
+        System.out.println("");
+        System.out.println("@@@ RUNS @@@");
+        try {
+            for (File file : files) {
+                try (BinaryResultReader reader = new BinaryResultReader(file)) {
+                    if (merged == null) {
+                        milliSecondsPerFrame = reader.getMilliSecondsPerFrame();
+                        merged = new BinaryResultWriter(tempFile, milliSecondsPerFrame);
+                    }
+                    else if (reader.getMilliSecondsPerFrame() != milliSecondsPerFrame) {
+                        System.err.println("Warning: " + file + " was recorded with another fps, delays in milliseconds will be inaccurate.");
+                    }
+
+                    BinaryResultWriter output = merged;
+                    double milliSeconds = milliSecondsPerFrame;
+                    reader.read(new RunCollector() {
+                        @Override
+                        public void runEnded(String name, int framesAnalyzed) throws IOException {
+                            if (!runNames.add(name)) {
+                                System.err.println("Warning: run " + name + " in " + file + " was already merged, skipping it.");
+                                clear();
+                                return;
+                            }
+                            DelayStatistics statistics = new DelayStatistics(false);
+                            replay(DelayListener.all(statistics, output));
+                            output.summary(name, framesAnalyzed, statistics);
+                            clear();
+
+                            DelayHistogram delays = statistics.getAllDelays().getHistogram();
+                            System.out.println(name + ": " + Batch.summarize(delays, milliSeconds) + " (" + framesAnalyzed + " frames)");
+                            String scenario = Batch.scenarioOf(name);
+                            scenarioDelays.computeIfAbsent(scenario, s -> new DelayHistogram()).add(delays);
+                            scenarioRuns.merge(scenario, 1, Integer::sum);
+                        }
+                    });
+                }
+            }
+            merged.close();
+            merged = null;
+            Files.move(tempFile.toPath(), mergedFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            if (merged != null) {
+                merged.close();
+            }
+            Files.deleteIfExists(tempFile.toPath()); // Only still there if merging failed
+        }
+
+        System.out.println("");
+        System.out.println("@@@ SCENARIOS (ALL RUNS POOLED) @@@");
+        for (String scenario : scenarioDelays.keySet()) {
+            System.out.println(scenario + " (" + scenarioRuns.get(scenario) + " runs): " + Batch.summarize(scenarioDelays.get(scenario), milliSecondsPerFrame));
+        }
+    }
+
+    // Keeps the swaps and delays of a run until its summary is read, since the name of the run is in the summary.
+    abstract static class RunCollector implements BinaryResultReader.Handler {
+        // Five ints per swap or delay: 0 (swap), flags, swap number, frame, 0 or 1 (delay), white, swap number, frame left, frame right
+        private final IntList events = new IntList();
+
+        @Override
+        public void swapDetected(boolean left, boolean white, int swapNum, int frame) {
+            events.add(0);
+            events.add((left ? 1 : 0) | (white ? 2 : 0));
+            events.add(swapNum);
+            events.add(frame);
+            events.add(0);
+        }
+
+        @Override
+        public void delayMeasured(boolean white, int swapNum, int frameLeft, int frameRight) {
+            events.add(1);
+            events.add(white ? 1 : 0);
+            events.add(swapNum);
+            events.add(frameLeft);
+            events.add(frameRight);
+        }
+
+        // Gives the swaps and delays of the run to the listener, in the order they were read.
+        void replay(DelayListener listener) {
+            for (int i = 0; i < events.size(); i += 5) {
+                if (events.get(i) == 0) {
+                    listener.swapDetected((events.get(i + 1) & 1) != 0, (events.get(i + 1) & 2) != 0, events.get(i + 2), events.get(i + 3));
+                }
+                else {
+                    listener.delayMeasured(events.get(i + 1) != 0, events.get(i + 2), events.get(i + 3), events.get(i + 4));
+                }
+            }
+        }
+
+        void clear() {
+            events.clear();
+        }
+    }
+
+    // Returns the result files given on the command line, in the given order.
+    // Names with *, ? or [ are glob patterns matched against the names in the data folder (sorted by name).
+    static List<File> findFiles(String[] args) throws IOException {
+        List<File> files = new ArrayList<File>();
+        for (String arg : args) {
+            List<String> names = new ArrayList<String>();
+            if (arg.contains("*") || arg.contains("?") || arg.contains("[")) {
+                try (DirectoryStream<Path> stream = Files.newDirectoryStream(Paths.get("data"), arg)) {
+                    for (Path path : stream) {
+                        if (Files.isRegularFile(path)) {
+                            names.add(path.getFileName().toString());
+                        }
+                    }
+                }
+                names.sort(null);
+            }
+            else {
+                names.add(arg);
+            }
+            for (String name : names) {
+                files.add(new File("data/" + name));
+            }
+        }
+        return files;
+    }
+}
\ No newline at end of file
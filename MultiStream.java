@@ -0,0 +1,80 @@
+import java.io.File;
+import java.io.IOException;
+
+// Measures the delay of several streams against one reference stream in a single pass over the frames,
+// for example a source and four apps tiled in a grid in the same recording. The streams are configured in a
+// properties file (see StreamConfig). Each stream is paired with the reference the same way as in Main, with
+// the reference as left and the stream as right, so one recording replaces several, and every frame is only
+// decoded once no matter how many streams there are.
+
+// To analyze data/exampleData with the streams in exampleStreams.properties, run (after compiling):
+//   java MultiStream exampleData exampleStreams.properties
+// To also print every delay, add "print" (or "p") as third argument.
+public class MultiStream {
+    public static void main(String[] args) throws IOException {
+
+        // --- SETTINGS, TO BE CHANGED BY USER ---
+        boolean waitForNext = false; // If true, the delays are found like in WaitForNext instead of like in Main
+
+        // Command line options
+        String folderWithFramesName = args[0]; // This folder must be located inside the data folder, and should contains frames from video (or be a frame container)
+        StreamConfig config = StreamConfig.load(new File(args[1]));
+        boolean printDelays = args.length >= 3 && (args[2].equals("print") || args[2].equals("p"));
+
+        // --- ACTUAL CODE STARTS ---
+        File folder = new File("data/" + folderWithFramesName);
+        double milliSecondsPerFrame = 1000 / config.getFps();
+        int streamCount = config.getStreamCount();
+        int reference = config.getReferenceIndex();
+
+        // One matcher and one set of statistics per stream, except for the reference.
+        DelayStatistics[] statistics = new DelayStatistics[streamCount];
+        DelayMatcher[] matchers = new DelayMatcher[streamCount];
+        for (int stream = 0; stream < streamCount; stream++) {
+            if (stream == reference) {
+                continue;
+            }
+            statistics[stream] = new DelayStatistics(false);
+            DelayListener listener = statistics[stream];
+            if (printDelays) {
+                String name = config.getName(stream);
+                listener = DelayListener.all(statistics[stream], (white, swapNum, frameLeft, frameRight) -> {
+                    int delay = frameRight - frameLeft;
+                    System.out.println(name + ": " + (white ? "White" : "Black") + " delay # " + swapNum + ": " + (int) (delay * milliSecondsPerFrame) + "ms = " + delay + " frames, reference flipped at " + frameLeft + ", " + name + " at " + frameRight);
+                });
+            }
+            matchers[stream] = waitForNext ? new WaitForNextMatcher(listener) : new IndexPairingMatcher(listener);
+        }
+
+        int frameCount;
+        byte[] colors = new byte[streamCount];
+        try (FrameSource frames = FrameSources.open(folder, config.getXs(), config.getYs(), config.getPatchWidth(), config.getPatchHeight())) {
+            System.out.println("Processing " + frames.getFrameCount() + " files...");
+            frameCount = AnalysisEngine.runProbes(frames, (frame, rgbs, offset) -> {
+                for (int stream = 0; stream < streamCount; stream++) {
+                    colors[stream] = PixelClassifier.classify(rgbs[offset + stream]);
+                }
+                for (int stream = 0; stream < streamCount; stream++) {
+                    if (stream != reference) {
+                        matchers[stream].accept(frame, colors[reference], colors[stream]);
+                    }
+                }
+            });
+        }
+
+        System.out.println("");
+        System.out.println("--------------------------");
+        System.out.println("@@@ SUMMARY PER STREAM, COMPARED WITH " + config.getName(reference) + " @@@");
+        System.out.println("");
+        System.out.println("File name: " + folderWithFramesName);
+        System.out.println("Total frames analyzed: " + frameCount);
+        for (int stream = 0; stream < streamCount; stream++) {
+            if (stream == reference) {
+                continue;
+            }
+            DelayHistogram delays = statistics[stream].getAllDelays().getHistogram();
+            System.out.println(config.getName(stream) + ": " + Batch.summarize(delays, milliSecondsPerFrame)
+                + " (flips to white: " + statistics[stream].getSwaps(false, true) + ", to black: " + statistics[stream].getSwaps(false, false) + ")");
+        }
+    }
+}
\ No newline at end of file
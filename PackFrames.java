@@ -0,0 +1,26 @@
+import java.io.File;
+import java.io.IOException;
+
+// Packs all frames in a folder into a single frame container file (see FrameContainer).
+// Main can analyze the container without decoding any JPEG files, which is much faster when
+// the same video is analyzed several times.
+
+// To pack the frames in data/exampleData into data/exampleData.frames, run "PackFrames exampleData" (after compiling).
+// Then run "Main exampleData.frames" to analyze it.
+// The optional second argument is the fps of the video (default 60).
+public class PackFrames {
+    public static void main(String[] args) throws IOException {
+        String folderWithFramesName = args[0]; // This folder must be located inside the data folder, and should contains frames from video
+        double fps = args.length >= 2 ? Double.parseDouble(args[1]) : 60;
+
+        File folder = new File("data/" + folderWithFramesName);
+        FrameFolder frameFolder = FrameFolder.scan(folder); // Frame files sorted by frame number
+        frameFolder.printWarnings();
+        File[] listOfFiles = frameFolder.getFiles();
+        File output = new File("data/" + folderWithFramesName + ".frames");
+
+        System.out.println("Packing " + listOfFiles.length + " files into " + output + "...");
+        FrameContainer.write(listOfFiles, fps, output);
+        System.out.println("Done, " + output.length() + " bytes written.");
+    }
+}
\ No newline at end of file
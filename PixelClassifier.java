@@ -0,0 +1,33 @@
+// Classifies the color of a pixel as black, white or other (neither black nor white).
+// Works directly on packed RGB ints (same format as BufferedImage.getRGB), so classifying
+// a pixel never allocates a Color object, which matters when it is done for every frame.
+public class PixelClassifier {
+    public static final byte BLACK = 0;
+    public static final byte WHITE = 1;
+    public static final byte OTHER = 2;
+
+    // A pixel is black if all channels are below BLACK_LIMIT, and white if all channels are above WHITE_LIMIT.
+    static final int BLACK_LIMIT = 40;
+    static final int WHITE_LIMIT = 230;
+
+    public static byte classify(int rgb) {
+        int red = (rgb >> 16) & 0xff;
+        int green = (rgb >> 8) & 0xff;
+        int blue = rgb & 0xff;
+        if (red < BLACK_LIMIT && green < BLACK_LIMIT && blue < BLACK_LIMIT) {
+            return BLACK;
+        }
+        if (red > WHITE_LIMIT && green > WHITE_LIMIT && blue > WHITE_LIMIT) {
+            return WHITE;
+        }
+        return OTHER;
+    }
+
+    // Luminance of a pixel between 0 (black) and 255 (white), with the BT.601 weights of the channels.
+    public static double luminance(int rgb) {
+        int red = (rgb >> 16) & 0xff;
+        int green = (rgb >> 8) & 0xff;
+        int blue = rgb & 0xff;
+        return 0.299 * red + 0.587 * green + 0.114 * blue;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,142 @@
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+// Measures how much time each stage of a run takes (listing the folder, decoding, pixel sampling, analysis,
+// printing), so it can be seen where the time goes on a capture without attaching a profiler.
+// The stages are measured with System.nanoTime at a few points in the code (see the Stage fields).
+// When the profiler is not enabled, each point only checks a boolean, so it costs nothing.
+// Stages that run in several threads at the same time (decoding, sampling) are summed over all threads,
+// so they can add up to more than the wall time.
+//
+// Usage: Profiler.enable() at the start of a run, then Profiler.printReport() or Profiler.writeJson(file) at the end.
+public class Profiler {
+    public static final Stage LIST_FOLDER = new Stage("list folder");
+    public static final Stage SAMPLE_CACHE = new Stage("load/save sample cache");
+    public static final Stage READ_FRAMES = new Stage("read frames (wall time)");
+    public static final Stage READ_FILES = new Stage("  read files ahead (all threads)");
+    public static final Stage DECODE = new Stage("  decode (all threads)");
+    public static final Stage SAMPLE = new Stage("  sample pixels (all threads)");
+    public static final Stage ANALYZE = new Stage("analyze (classify, match, listeners)");
+    public static final Stage REPORT = new Stage("statistics + printing");
+    static final Stage[] STAGES = {LIST_FOLDER, SAMPLE_CACHE, READ_FRAMES, READ_FILES, DECODE, SAMPLE, ANALYZE, REPORT};
+
+    private static boolean enabled = false;
+    private static long startNanos;
+    private static long[] gcCountsAtStart;
+    private static long[] gcMillisAtStart;
+
+    // The time, items and bytes of one stage. Can be recorded from several threads at the same time.
+    public static class Stage {
+        final String name;
+        final LongAdder nanos = new LongAdder();
+        final LongAdder calls = new LongAdder();
+        final LongAdder items = new LongAdder(); // Frames
+        final LongAdder bytes = new LongAdder(); // Bytes read from files
+
+        Stage(String name) {
+            this.name = name;
+        }
+
+        // Records one call that started at "start" (from Profiler.start()) and handled the given amount of frames and bytes.
+        public void record(long start, int frames, long bytesRead) {
+            if (!enabled) {
+                return;
+            }
+            nanos.add(System.nanoTime() - start);
+            calls.increment();
+            items.add(frames);
+            bytes.add(bytesRead);
+        }
+
+        public void record(long start) {
+            record(start, 0, 0);
+        }
+    }
+
+    // Starts measuring, and clears everything that was measured before.
+    public static void enable() {
+        for (Stage stage : STAGES) {
+            stage.nanos.reset();
+            stage.calls.reset();
+            stage.items.reset();
+            stage.bytes.reset();
+        }
+        List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+        gcCountsAtStart = new long[collectors.size()];
+        gcMillisAtStart = new long[collectors.size()];
+        for (int i = 0; i < collectors.size(); i++) {
+            gcCountsAtStart[i] = collectors.get(i).getCollectionCount();
+            gcMillisAtStart[i] = collectors.get(i).getCollectionTime();
+        }
+        startNanos = System.nanoTime();
+        enabled = true;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    // Returns the start time of a measurement, to give to Stage.record (0 if the profiler is not enabled).
+    public static long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    // Prints how long each stage took, how many frames per second were analyzed, and the garbage collections.
+    public static void printReport() {
+        double wallMillis = (System.nanoTime() - startNanos) / 1e6;
+        long frames = READ_FRAMES.items.sum();
+        System.out.println("");
+        System.out.println("--------------------------");
+        System.out.println("@@@ TIMINGS @@@");
+        System.out.println("");
+        System.out.println(String.format("Total: %.0f ms, %d frames = %.0f frames/s", wallMillis, frames, frames / (wallMillis / 1000)));
+        System.out.println(String.format("%-32s %10s %10s %12s %12s", "Stage", "ms", "% of total", "per frame", "bytes"));
+        for (Stage stage : STAGES) {
+            if (stage.calls.sum() == 0) {
+                continue;
+            }
+            double millis = stage.nanos.sum() / 1e6;
+            long stageFrames = stage.items.sum();
+            System.out.println(String.format("%-32s %10.1f %9.1f%% %12s %12s", stage.name, millis, 100 * millis / wallMillis,
+                stageFrames > 0 ? String.format("%.1f us", millis * 1000 / stageFrames) : "",
+                stage.bytes.sum() > 0 ? String.format("%,d", stage.bytes.sum()) : ""));
+        }
+        List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+        for (int i = 0; i < collectors.size() && i < gcCountsAtStart.length; i++) {
+            System.out.println("GC " + collectors.get(i).getName() + ": " + (collectors.get(i).getCollectionCount() - gcCountsAtStart[i])
+                + " collections, " + (collectors.get(i).getCollectionTime() - gcMillisAtStart[i]) + " ms");
+        }
+    }
+
+    // Writes the same as printReport as one JSON object, for comparing runs in other tools.
+    public static void writeJson(String name, File file) throws IOException {
+        double wallMillis = (System.nanoTime() - startNanos) / 1e6;
+        long frames = READ_FRAMES.items.sum();
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+            out.write("{\"name\":" + JsonResultWriter.quote(name) + ",\"wallMs\":" + wallMillis + ",\"frames\":" + frames
+                + ",\"framesPerSecond\":" + frames / (wallMillis / 1000) + ",\"stages\":[");
+            for (int i = 0; i < STAGES.length; i++) {
+                Stage stage = STAGES[i];
+                out.write((i > 0 ? "," : "") + "{\"name\":" + JsonResultWriter.quote(stage.name.trim()) + ",\"ms\":" + stage.nanos.sum() / 1e6
+                    + ",\"calls\":" + stage.calls.sum() + ",\"frames\":" + stage.items.sum() + ",\"bytes\":" + stage.bytes.sum() + "}");
+            }
+            out.write("],\"gc\":[");
+            List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+            for (int i = 0; i < collectors.size() && i < gcCountsAtStart.length; i++) {
+                out.write((i > 0 ? "," : "") + "{\"name\":" + JsonResultWriter.quote(collectors.get(i).getName())
+                    + ",\"collections\":" + (collectors.get(i).getCollectionCount() - gcCountsAtStart[i])
+                    + ",\"ms\":" + (collectors.get(i).getCollectionTime() - gcMillisAtStart[i]) + "}");
+            }
+            out.write("]}\n");
+        }
+    }
+}
\ No newline at end of file
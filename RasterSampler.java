@@ -0,0 +1,129 @@
+import java.awt.image.BufferedImage;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.Raster;
+import java.awt.image.SinglePixelPackedSampleModel;
+
+// Reads the colors of pixels in a decoded frame directly from its DataBuffer, instead of BufferedImage.getRGB,
+// which converts every pixel through the ColorModel. The two layouts frames are usually decoded into are read
+// directly: TYPE_3BYTE_BGR (JPEG) and TYPE_INT_RGB (for example PNG or BMP without alpha). Other image types
+// fall back to getRGB, so the result is always the same as with getRGB.
+// A patch of pixels can also be averaged, so a side of the video can be judged from many pixels instead of one,
+// which makes the classification robust against JPEG artifacts.
+public class RasterSampler {
+
+    // Returns the color of pixel (x, y), as a packed RGB int (same format as BufferedImage.getRGB, without alpha).
+    public static int getRGB(BufferedImage img, int x, int y) {
+        Raster raster = img.getRaster();
+        int sampleX = x - raster.getSampleModelTranslateX();
+        int sampleY = y - raster.getSampleModelTranslateY();
+        if (isInterleavedRgbBytes(img)) {
+            // getOffset with a band instead of getBandOffsets, since getBandOffsets copies the offsets on every call
+            ComponentSampleModel model = (ComponentSampleModel) raster.getSampleModel();
+            DataBufferByte buffer = (DataBufferByte) raster.getDataBuffer();
+            byte[] data = buffer.getData();
+            int offset = buffer.getOffset();
+            return ((data[offset + model.getOffset(sampleX, sampleY, 0)] & 0xff) << 16)
+                | ((data[offset + model.getOffset(sampleX, sampleY, 1)] & 0xff) << 8)
+                | (data[offset + model.getOffset(sampleX, sampleY, 2)] & 0xff);
+        }
+        if (isPackedRgbInts(img)) {
+            SinglePixelPackedSampleModel model = (SinglePixelPackedSampleModel) raster.getSampleModel();
+            DataBufferInt buffer = (DataBufferInt) raster.getDataBuffer();
+            return buffer.getData()[buffer.getOffset() + model.getOffset(sampleX, sampleY)] & 0xffffff;
+        }
+        return img.getRGB(x, y) & 0xffffff;
+    }
+
+    // Returns the average color of the width x height pixels with the top left corner at (x, y),
+    // as a packed RGB int. Channels are rounded to the nearest integer.
+    public static int averageRGB(BufferedImage img, int x, int y, int width, int height) {
+        if (width == 1 && height == 1) {
+            return getRGB(img, x, y);
+        }
+
+        Raster raster = img.getRaster();
+        int red = 0;
+        int green = 0;
+        int blue = 0;
+        if (isInterleavedRgbBytes(img)) {
+            ComponentSampleModel model = (ComponentSampleModel) raster.getSampleModel();
+            byte[] data = ((DataBufferByte) raster.getDataBuffer()).getData();
+            int pixelStride = model.getPixelStride();
+            int scanlineStride = model.getScanlineStride();
+            int[] bandOffsets = model.getBandOffsets();
+            int redOffset = bandOffsets[0];
+            int greenOffset = bandOffsets[1];
+            int blueOffset = bandOffsets[2];
+            int rowStart = firstIndex(raster, pixelStride, scanlineStride, x, y);
+            for (int row = 0; row < height; row++) {
+                int index = rowStart;
+                for (int column = 0; column < width; column++) {
+                    red += data[index + redOffset] & 0xff;
+                    green += data[index + greenOffset] & 0xff;
+                    blue += data[index + blueOffset] & 0xff;
+                    index += pixelStride;
+                }
+                rowStart += scanlineStride;
+            }
+        }
+        else if (isPackedRgbInts(img)) {
+            SinglePixelPackedSampleModel model = (SinglePixelPackedSampleModel) raster.getSampleModel();
+            int[] data = ((DataBufferInt) raster.getDataBuffer()).getData();
+            int scanlineStride = model.getScanlineStride();
+            int rowStart = firstIndex(raster, 1, scanlineStride, x, y);
+            for (int row = 0; row < height; row++) {
+                for (int index = rowStart; index < rowStart + width; index++) {
+                    int rgb = data[index];
+                    red += (rgb >> 16) & 0xff;
+                    green += (rgb >> 8) & 0xff;
+                    blue += rgb & 0xff;
+                }
+                rowStart += scanlineStride;
+            }
+        }
+        else {
+            for (int row = y; row < y + height; row++) {
+                for (int column = x; column < x + width; column++) {
+                    int rgb = img.getRGB(column, row);
+                    red += (rgb >> 16) & 0xff;
+                    green += (rgb >> 8) & 0xff;
+                    blue += rgb & 0xff;
+                }
+            }
+        }
+        return average(red, green, blue, width * height);
+    }
+
+    // True if the pixels are stored as one byte per channel (red, green, blue) in sRGB, without alpha,
+    // so the bytes in the DataBuffer are the same values that getRGB would return.
+    static boolean isInterleavedRgbBytes(BufferedImage img) {
+        Raster raster = img.getRaster();
+        return img.getType() == BufferedImage.TYPE_3BYTE_BGR
+            && raster.getDataBuffer() instanceof DataBufferByte
+            && raster.getSampleModel() instanceof ComponentSampleModel
+            && raster.getNumBands() == 3;
+    }
+
+    // True if every pixel is stored as one int, 0xRRGGBB, in sRGB.
+    static boolean isPackedRgbInts(BufferedImage img) {
+        Raster raster = img.getRaster();
+        return img.getType() == BufferedImage.TYPE_INT_RGB
+            && raster.getDataBuffer() instanceof DataBufferInt
+            && raster.getSampleModel() instanceof SinglePixelPackedSampleModel;
+    }
+
+    // Index of the first sample of pixel (x, y) in the data of the DataBuffer.
+    private static int firstIndex(Raster raster, int pixelStride, int scanlineStride, int x, int y) {
+        return raster.getDataBuffer().getOffset()
+            + (y - raster.getSampleModelTranslateY()) * scanlineStride
+            + (x - raster.getSampleModelTranslateX()) * pixelStride;
+    }
+
+    // Packs the average of the channel sums of "count" pixels into an RGB int.
+    static int average(int red, int green, int blue, int count) {
+        int half = count / 2;
+        return (((red + half) / count) << 16) | (((green + half) / count) << 8) | ((blue + half) / count);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,124 @@
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+// Reads raw, uncompressed video frames from a stream (for example stdin or a named pipe with the output of
+// "ffmpeg -f rawvideo"), and reads the colors of a few specified pixels (probes) directly from the bytes.
+// Frames are never encoded to or decoded from JPEG, and nothing is written to disk.
+// The frame count is not known in advance, the frames are read until the stream ends.
+// Supported pixel formats (same names as in ffmpeg):
+//   rgb24   - 3 bytes per pixel, red, green, blue
+//   bgr24   - 3 bytes per pixel, blue, green, red
+//   yuv420p - a full size Y plane followed by U and V planes in half width and half height
+public class RawFrameReader implements FrameSource {
+    private final InputStream input;
+    private final boolean yuv;     // True for yuv420p, false for rgb24/bgr24
+    private final int redIndex;    // Index of red within a pixel for rgb24/bgr24
+    private final int blueIndex;   // Index of blue within a pixel for rgb24/bgr24
+    private final int frameSize;   // Bytes per frame
+    private final byte[] frame;    // Reused for every frame
+
+    // Byte offsets of each probe within a frame. For rgb24/bgr24 the offset of the first channel,
+    // for yuv420p the offsets in the Y, U and V planes.
+    private final int[] offsets;
+    private final int[] uOffsets;
+    private final int[] vOffsets;
+
+    public RawFrameReader(InputStream input, int width, int height, String pixelFormat, int[] probeXs, int[] probeYs) {
+        this.input = input;
+        this.yuv = pixelFormat.equals("yuv420p");
+        this.redIndex = pixelFormat.equals("bgr24") ? 2 : 0;
+        this.blueIndex = 2 - redIndex;
+        this.offsets = new int[probeXs.length];
+        this.uOffsets = new int[probeXs.length];
+        this.vOffsets = new int[probeXs.length];
+
+        for (int i = 0; i < probeXs.length; i++) {
+            if (probeXs[i] < 0 || probeXs[i] >= width || probeYs[i] < 0 || probeYs[i] >= height) {
+                throw new IllegalArgumentException("Pixel (" + probeXs[i] + "," + probeYs[i] + ") is outside of a " + width + "x" + height + " frame");
+            }
+        }
+
+        if (pixelFormat.equals("rgb24") || pixelFormat.equals("bgr24")) {
+            frameSize = width * height * 3;
+            for (int i = 0; i < probeXs.length; i++) {
+                offsets[i] = (probeYs[i] * width + probeXs[i]) * 3;
+            }
+        }
+        else if (pixelFormat.equals("yuv420p")) {
+            int chromaWidth = (width + 1) / 2;
+            int chromaHeight = (height + 1) / 2;
+            frameSize = width * height + 2 * chromaWidth * chromaHeight;
+            for (int i = 0; i < probeXs.length; i++) {
+                offsets[i] = probeYs[i] * width + probeXs[i];
+                uOffsets[i] = width * height + (probeYs[i] / 2) * chromaWidth + probeXs[i] / 2;
+                vOffsets[i] = uOffsets[i] + chromaWidth * chromaHeight;
+            }
+        }
+        else {
+            throw new IllegalArgumentException("Unsupported pixel format: " + pixelFormat + " (use rgb24, bgr24 or yuv420p)");
+        }
+        this.frame = new byte[frameSize];
+    }
+
+    @Override
+    public int getFrameCount() {
+        return -1;
+    }
+
+    @Override
+    public int getProbeCount() {
+        return offsets.length;
+    }
+
+    // Only waits for the first frame. The following frames are only read if they are already available,
+    // so delays are still reported right away when the frames come live from ffmpeg.
+    @Override
+    public int read(int[] rgbs, int maxFrames) throws IOException {
+        int count = 0;
+        while (count < maxFrames && (count == 0 || input.available() >= frameSize) && readFrame(rgbs, count * offsets.length)) {
+            count++;
+        }
+        return count;
+    }
+
+    // Reads the next frame and saves the color of each probe in rgbs (starting at index "start"), as a packed
+    // RGB int (same format as BufferedImage.getRGB). Returns false if the stream ended before the frame.
+    private boolean readFrame(int[] rgbs, int start) throws IOException {
+        int read = input.readNBytes(frame, 0, frameSize);
+        if (read == 0) {
+            return false;
+        }
+        if (read < frameSize) {
+            throw new EOFException("Stream ended in the middle of a frame (" + read + " of " + frameSize + " bytes)");
+        }
+
+        for (int i = 0; i < offsets.length; i++) {
+            int offset = offsets[i];
+            if (yuv) {
+                rgbs[start + i] = yuvToRgb(frame[offset] & 0xff, frame[uOffsets[i]] & 0xff, frame[vOffsets[i]] & 0xff);
+            }
+            else {
+                rgbs[start + i] = toRgb(frame[offset + redIndex] & 0xff, frame[offset + 1] & 0xff, frame[offset + blueIndex] & 0xff);
+            }
+        }
+        return true;
+    }
+
+    private static int toRgb(int red, int green, int blue) {
+        return (red << 16) | (green << 8) | blue;
+    }
+
+    // Converts limited range BT.601 YUV (the default in ffmpeg) to RGB.
+    private static int yuvToRgb(int y, int u, int v) {
+        double luma = 1.164 * (y - 16);
+        int red = clamp(luma + 1.596 * (v - 128));
+        int green = clamp(luma - 0.392 * (u - 128) - 0.813 * (v - 128));
+        int blue = clamp(luma + 2.017 * (u - 128));
+        return toRgb(red, green, blue);
+    }
+
+    private static int clamp(double channel) {
+        return (int) Math.max(0, Math.min(255, Math.round(channel)));
+    }
+}
\ No newline at end of file
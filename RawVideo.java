@@ -0,0 +1,42 @@
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+// Analyzes raw video frames directly from ffmpeg, without extracting the frames to JPEG files first.
+// Uses the same pixels and the same single-pass analysis as "Main <folder> stream".
+
+// To analyze a 148x74 video recorded in 60fps, run (after compiling):
+//   ffmpeg -i video.mp4 -f rawvideo -pix_fmt rgb24 - | java RawVideo 148 74 60
+// Optional fourth argument: pixel format, rgb24 (default), bgr24 or yuv420p.
+// Optional fifth argument: a file or named pipe (created with mkfifo) to read the frames from instead of stdin.
+// To check the analysis on a synthetic video with known delays (no ffmpeg needed), run "RawVideoCheck".
+public class RawVideo {
+    public static void main(String[] args) throws IOException {
+
+        // Command line options
+        int width = Integer.parseInt(args[0]);
+        int height = Integer.parseInt(args[1]);
+        double fps = Double.parseDouble(args[2]);
+        String pixelFormat = args.length >= 4 ? args[3] : "rgb24";
+        String inputName = args.length >= 5 ? args[4] : "stdin";
+
+        // Pixel coordinates that we analyze (leftx, lefty) and (rightx, righty)
+        int leftx = 20;
+        int lefty = 30;
+        int rightx = 120;
+        int righty = 30;
+
+        double milliSecondsPerFrame = 1000 / fps;
+        DelayStatistics statistics = new DelayStatistics(false);
+        int framesAnalyzed;
+
+        InputStream input = args.length >= 5 ? new FileInputStream(inputName) : System.in;
+        try (InputStream bufferedInput = new BufferedInputStream(input, 1 << 20)) {
+            RawFrameReader reader = new RawFrameReader(bufferedInput, width, height, pixelFormat, new int[] {leftx, rightx}, new int[] {lefty, righty});
+            framesAnalyzed = AnalysisEngine.run(reader, new IndexPairingMatcher(DelayListener.all(statistics, Main.printingDelayListener(milliSecondsPerFrame))));
+        }
+
+        Main.printStreamingSummary(inputName, framesAnalyzed, statistics, milliSecondsPerFrame);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,104 @@
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+// Checks RawVideo on a small synthetic rgb24 video that is generated in memory, instead of coming from ffmpeg.
+// Left and right switch between black and white, and right follows left with a known delay for every swap.
+// The frames are read by RawFrameReader and analyzed like in RawVideo, and the delays found must be exactly
+// the known delays, in the same order. Prints OK, or every wrong delay and exits with status 1.
+
+// To run the check, run "RawVideoCheck" (after compiling).
+public class RawVideoCheck {
+    public static void main(String[] args) throws IOException {
+
+        // --- SETTINGS, TO BE CHANGED BY USER ---
+        int width = 128;
+        int height = 40;
+        int firstSwapFrame = 10; // Index of the frame where left first turns white (starting at 0)
+        int framesBetweenSwaps = 60; // Frames from one swap on the left to the next. Must be longer than every delay
+        int[] expectedDelays = {18, 11, 25, 3, 40, 7, 59, 1}; // In frames. The first delay is white, then black, and so on
+
+        // --- ACTUAL CODE STARTS ---
+        // Pixel coordinates that we analyze (leftx, lefty) and (rightx, righty)
+        int leftx = 20;
+        int lefty = 30;
+        int rightx = 120;
+        int righty = 30;
+
+        int frameCount = firstSwapFrame + expectedDelays.length * framesBetweenSwaps;
+        byte[] video = writeVideo(width, height, frameCount, leftx, lefty, rightx, righty, firstSwapFrame, framesBetweenSwaps, expectedDelays);
+
+        IntList delays = new IntList();
+        IntList whiteDelays = new IntList(); // 1 for every white delay, 0 for every black delay
+        DelayStatistics statistics = new DelayStatistics(false);
+        DelayListener listener = DelayListener.all(statistics, (white, swapNum, frameLeft, frameRight) -> {
+            delays.add(frameRight - frameLeft);
+            whiteDelays.add(white ? 1 : 0);
+        });
+        RawFrameReader reader = new RawFrameReader(new ByteArrayInputStream(video), width, height, "rgb24", new int[] {leftx, rightx}, new int[] {lefty, righty});
+        int framesAnalyzed = AnalysisEngine.run(reader, new IndexPairingMatcher(listener));
+
+        int errors = 0;
+        if (framesAnalyzed != frameCount) {
+            System.out.println("Analyzed " + framesAnalyzed + " frames, expected " + frameCount);
+            errors++;
+        }
+        int swapsLeft = statistics.getSwaps(true, true) + statistics.getSwaps(true, false);
+        int swapsRight = statistics.getSwaps(false, true) + statistics.getSwaps(false, false);
+        if (swapsLeft != expectedDelays.length || swapsRight != expectedDelays.length) {
+            System.out.println("Found " + swapsLeft + " swaps left and " + swapsRight + " right, expected " + expectedDelays.length);
+            errors++;
+        }
+        if (delays.size() != expectedDelays.length) {
+            System.out.println("Found " + delays.size() + " delays, expected " + expectedDelays.length);
+            errors++;
+        }
+        for (int i = 0; i < Math.min(delays.size(), expectedDelays.length); i++) {
+            boolean expectedWhite = i % 2 == 0;
+            if (delays.get(i) != expectedDelays[i] || (whiteDelays.get(i) == 1) != expectedWhite) {
+                System.out.println("Delay " + (i + 1) + ": " + (whiteDelays.get(i) == 1 ? "white " : "black ") + delays.get(i)
+                    + " frames, expected " + (expectedWhite ? "white " : "black ") + expectedDelays[i] + " frames");
+                errors++;
+            }
+        }
+
+        if (errors > 0) {
+            System.out.println(errors + " errors.");
+            System.exit(1);
+        }
+        System.out.println("OK, " + framesAnalyzed + " frames, " + delays.size() + " delays as expected.");
+    }
+
+    // Returns frameCount rgb24 frames (width x height) that are black, except for the pixels (leftx, lefty) and
+    // (rightx, righty). Left turns white at firstSwapFrame and swaps color every framesBetweenSwaps frames,
+    // and right swaps delays[i] frames after the i:th swap on the left.
+    static byte[] writeVideo(int width, int height, int frameCount, int leftx, int lefty, int rightx, int righty,
+                             int firstSwapFrame, int framesBetweenSwaps, int[] delays) {
+        int frameSize = width * height * 3;
+        int leftOffset = (lefty * width + leftx) * 3;
+        int rightOffset = (righty * width + rightx) * 3;
+        byte[] video = new byte[frameCount * frameSize];
+        for (int frame = 0; frame < frameCount; frame++) {
+            int swapsLeft = 0;
+            int swapsRight = 0;
+            for (int i = 0; i < delays.length; i++) {
+                int leftSwapFrame = firstSwapFrame + i * framesBetweenSwaps;
+                if (frame >= leftSwapFrame) {
+                    swapsLeft++;
+                }
+                if (frame >= leftSwapFrame + delays[i]) {
+                    swapsRight++;
+                }
+            }
+            // An odd amount of swaps means white, since both start black
+            int start = frame * frameSize;
+            if (swapsLeft % 2 == 1) {
+                Arrays.fill(video, start + leftOffset, start + leftOffset + 3, (byte) 255);
+            }
+            if (swapsRight % 2 == 1) {
+                Arrays.fill(video, start + rightOffset, start + rightOffset + 3, (byte) 255);
+            }
+        }
+        return video;
+    }
+}
\ No newline at end of file
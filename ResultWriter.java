@@ -0,0 +1,34 @@
+import java.io.File;
+import java.io.IOException;
+
+// Writes the swaps, delays and summary of an analysis to a file, so other tools can read the results
+// without parsing the printed text. A writer is a DelayListener, so it receives every swap and delay as soon
+// as it is found, and the summary is written after the analysis.
+// Every record is formatted once, directly into a large buffer, so writing a record is cheap and does not wait
+// for the disk. The buffer is only written to the file when it is full, and when the writer is closed.
+//
+// Formats: "csv" (see CsvResultWriter), "jsonl" (one JSON object per line, see JsonResultWriter)
+// and "bin" (compact binary, see BinaryResultWriter).
+public interface ResultWriter extends DelayListener, AutoCloseable {
+    int BUFFER_SIZE = 1 << 16;
+
+    // Writes the summary of the white, black and all delays. name is the analyzed folder (or frame container).
+    void summary(String name, int framesAnalyzed, DelayStatistics statistics) throws IOException;
+
+    @Override
+    void close() throws IOException;
+
+    // Creates a result file in the given format. milliSecondsPerFrame is 16.6666 for videos recorded in 60fps.
+    static ResultWriter open(File file, String format, double milliSecondsPerFrame) throws IOException {
+        switch (format) {
+            case "csv":
+                return new CsvResultWriter(file, milliSecondsPerFrame);
+            case "jsonl":
+                return new JsonResultWriter(file, milliSecondsPerFrame);
+            case "bin":
+                return new BinaryResultWriter(file, milliSecondsPerFrame);
+            default:
+                throw new IllegalArgumentException("Unknown result format \"" + format + "\", expected csv, jsonl or bin");
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,74 @@
+import java.util.concurrent.TimeUnit;
+
+// Statistics of the delays while a video is still being analyzed (see Watch): the last few delays, and all
+// delays so far. Everything is passed on to a DelayStatistics for the summary at the end.
+// The delays are added by the analysis and printed by another thread, so all methods are synchronized.
+public class RollingStatistics implements DelayListener {
+    private final DelayStatistics total;
+    private final int[] recentDelays; // The last recentDelays.length delays, as a ring buffer
+    private int delayCount = 0;
+    private int lastFrame = 0; // Last frame analyzed
+    private int lastSwapFrame = 0; // Last frame where the left or right side swapped
+    private final long startNanos = System.nanoTime();
+
+    public RollingStatistics(DelayStatistics total, int recentDelayCount) {
+        this.total = total;
+        this.recentDelays = new int[recentDelayCount];
+    }
+
+    // Wraps a DelayMatcher so the amount of analyzed frames is counted.
+    public DelayMatcher counting(DelayMatcher matcher) {
+        return (frame, colorLeft, colorRight) -> {
+            synchronized (this) {
+                lastFrame = frame;
+                matcher.accept(frame, colorLeft, colorRight);
+            }
+        };
+    }
+
+    @Override
+    public synchronized void swapDetected(boolean left, boolean white, int swapNum, int frame) {
+        lastSwapFrame = frame;
+        total.swapDetected(left, white, swapNum, frame);
+    }
+
+    @Override
+    public synchronized void delayMeasured(boolean white, int swapNum, int frameLeft, int frameRight) {
+        recentDelays[delayCount % recentDelays.length] = frameRight - frameLeft;
+        delayCount++;
+        total.delayMeasured(white, swapNum, frameLeft, frameRight);
+    }
+
+    // Prints one line with the statistics so far, and a warning if the video looks wrong, so a bad run can be
+    // stopped early. warnAfterFrames is the amount of frames without any swap before warning.
+    public synchronized void print(double milliSecondsPerFrame, int warnAfterFrames) {
+        long seconds = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startNanos);
+        StringBuilder line = new StringBuilder();
+        line.append(String.format("[%02d:%02d] ", seconds / 60, seconds % 60)).append(lastFrame).append(" frames, ").append(delayCount).append(" delays");
+
+        if (delayCount > 0) {
+            int recentCount = Math.min(delayCount, recentDelays.length);
+            IntList recent = new IntList();
+            for (int i = 0; i < recentCount; i++) {
+                recent.add(recentDelays[i]);
+            }
+            int[] sorted = recent.toSortedArray();
+            DelayHistogram all = total.getAllDelays().getHistogram();
+            line.append(". Last ").append(recentCount).append(": median ").append((int) (recent.median() * milliSecondsPerFrame)).append("ms")
+                .append(", lowest ").append((int) (sorted[0] * milliSecondsPerFrame)).append("ms")
+                .append(", highest ").append((int) (sorted[recentCount - 1] * milliSecondsPerFrame)).append("ms")
+                .append(". All: median ").append((int) (all.getMedian() * milliSecondsPerFrame)).append("ms")
+                .append(", 90th percentile ").append((int) (all.getPercentile(0.9) * milliSecondsPerFrame)).append("ms");
+        }
+        System.out.println(line);
+
+        if (lastFrame - lastSwapFrame >= warnAfterFrames) {
+            System.out.println("  Warning: no swap in the last " + (lastFrame - lastSwapFrame) + " frames, are the pixel coordinates right?");
+        }
+        int swapsLeft = total.getSwaps(true, true) + total.getSwaps(true, false);
+        int swapsRight = total.getSwaps(false, true) + total.getSwaps(false, false);
+        if (Math.abs(swapsLeft - swapsRight) > 1) {
+            System.out.println("  Warning: left swapped " + swapsLeft + " times but right " + swapsRight + " times, delays will be paired wrong.");
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,237 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+
+// Saves the colors of the probes in every frame of a folder to a small file next to the folder
+// (data/<folder>.<probe hash>.samples), so analyzing the same folder again does not need to decode any frames.
+// Every set of probes has its own file, so programs that use different probes do not overwrite each other's cache.
+// A saved color is only used if the frame file still has the same name, size and modification time,
+// and if the probes have the same coordinates. Otherwise the frame is decoded again and the file is updated.
+//
+// File format (big endian):
+//   8 bytes  magic "LASAMPLE"
+//   4 bytes  version (2)
+//   4 bytes  probe count, followed by the x and y coordinate (4 bytes each) of every probe
+//   4 bytes  patch width, 4 bytes patch height (the colors are averages of the patches, see FrameSampler)
+//   4 bytes  frame count, followed by for every frame:
+//            file name (DataOutput.writeUTF), file size (8 bytes), modification time (8 bytes),
+//            and the packed RGB color of every probe (4 bytes each)
+public class SampleCache {
+    static final String MAGIC = "LASAMPLE";
+    static final int VERSION = 2;
+
+    private final File cacheFile;
+    private final int[] probeXs;
+    private final int[] probeYs;
+    private final int patchWidth;
+    private final int patchHeight;
+    private final int probeCount;
+
+    // One entry per frame. names[i] is null if there is no saved color for frame i.
+    private final String[] names;
+    private final long[] sizes;
+    private final long[] modifiedTimes;
+    private final int[] rgbs; // rgbs[i * probeCount + p] is the color of probe p in frame i
+
+    // Size and modification time of the frame files as read by isCached, so sampling the same frame afterwards
+    // does not ask the file system again. checked[i] is true from isCached until frame i is sampled.
+    private final boolean[] checked;
+    private final long[] checkedSizes;
+    private final long[] checkedModifiedTimes;
+    private volatile boolean changed = false;
+
+    private SampleCache(File cacheFile, int[] probeXs, int[] probeYs, int patchWidth, int patchHeight, int frameCount) {
+        this.cacheFile = cacheFile;
+        this.probeXs = probeXs.clone();
+        this.probeYs = probeYs.clone();
+        this.patchWidth = patchWidth;
+        this.patchHeight = patchHeight;
+        this.probeCount = probeXs.length;
+        this.names = new String[frameCount];
+        this.sizes = new long[frameCount];
+        this.modifiedTimes = new long[frameCount];
+        this.rgbs = new int[frameCount * probeCount];
+        this.checked = new boolean[frameCount];
+        this.checkedSizes = new long[frameCount];
+        this.checkedModifiedTimes = new long[frameCount];
+    }
+
+    // Returns the cache file for a folder with frames and a set of probes (with patches of the given size).
+    public static File cacheFileFor(File folder, int[] probeXs, int[] probeYs, int patchWidth, int patchHeight) {
+        int probeHash = Arrays.hashCode(new int[] {Arrays.hashCode(probeXs), Arrays.hashCode(probeYs), patchWidth, patchHeight});
+        return new File(folder.getPath() + "." + String.format("%08x", probeHash) + ".samples");
+    }
+
+    // Loads the saved colors for a folder with frameCount frames. If the file does not exist, can not be read
+    // or was saved for other probes, the cache starts out empty (and every frame will be decoded).
+    public static SampleCache load(File cacheFile, int[] probeXs, int[] probeYs, int patchWidth, int patchHeight, int frameCount) {
+        SampleCache cache = new SampleCache(cacheFile, probeXs, probeYs, patchWidth, patchHeight, frameCount);
+        if (!cacheFile.isFile()) {
+            return cache;
+        }
+        long start = Profiler.start();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(cacheFile), 1 << 16))) {
+            cache.read(in);
+        } catch (IOException e) {
+            // Unreadable or outdated cache file, start over and overwrite it when saving
+            Arrays.fill(cache.names, null);
+            cache.changed = true;
+        }
+        Profiler.SAMPLE_CACHE.record(start, 0, cacheFile.length());
+        return cache;
+    }
+
+    private void read(DataInputStream in) throws IOException {
+        byte[] magic = new byte[MAGIC.length()];
+        in.readFully(magic);
+        if (!new String(magic, StandardCharsets.US_ASCII).equals(MAGIC) || in.readInt() != VERSION) {
+            throw new IOException("Not a sample cache file: " + cacheFile);
+        }
+        if (in.readInt() != probeCount) {
+            throw new IOException("Sample cache saved for other probes: " + cacheFile);
+        }
+        for (int p = 0; p < probeCount; p++) {
+            if (in.readInt() != probeXs[p] || in.readInt() != probeYs[p]) {
+                throw new IOException("Sample cache saved for other probes: " + cacheFile);
+            }
+        }
+        if (in.readInt() != patchWidth || in.readInt() != patchHeight) {
+            throw new IOException("Sample cache saved for other patch size: " + cacheFile);
+        }
+        int savedFrameCount = in.readInt();
+        byte[] skippedColors = new byte[4 * probeCount];
+        for (int i = 0; i < savedFrameCount; i++) {
+            String name = in.readUTF();
+            long size = in.readLong();
+            long modifiedTime = in.readLong();
+            if (i >= names.length) {
+                in.readFully(skippedColors); // skipBytes might skip fewer bytes
+                changed = true; // Frames were removed from the folder
+                continue;
+            }
+            names[i] = name;
+            sizes[i] = size;
+            modifiedTimes[i] = modifiedTime;
+            for (int p = 0; p < probeCount; p++) {
+                rgbs[i * probeCount + p] = in.readInt();
+            }
+        }
+    }
+
+    // Decodes the colors of the probes in a frame that is not in the cache.
+    public interface Decoder {
+        void decode(int[] rgbs) throws IOException;
+    }
+
+    // Saves the colors of the probes in frame file "file" (frame index "index", starting at 0) in "rgbs".
+    // Uses the saved colors if the file has not changed, and otherwise decodes the frame with the sampler.
+    // Can be called from several threads at the same time, as long as they use different indices
+    // (and isCached for the same index was called before, by the same thread or one that handed the frame over).
+    public void sample(FrameSampler sampler, int index, File file, int[] rgbs) throws IOException {
+        sample(index, file, rgbs, pixels -> sampler.sample(file, pixels));
+    }
+
+    // Same as above, but a frame that is not in the cache is decoded by "decoder".
+    public void sample(int index, File file, int[] rgbs, Decoder decoder) throws IOException {
+        if (!checked[index]) {
+            readAttributes(index, file);
+        }
+        checked[index] = false;
+        String name = file.getName();
+        long size = checkedSizes[index];
+        long modifiedTime = checkedModifiedTimes[index];
+        int offset = index * probeCount;
+
+        if (name.equals(names[index]) && size == sizes[index] && modifiedTime == modifiedTimes[index]) {
+            System.arraycopy(this.rgbs, offset, rgbs, 0, probeCount);
+            return;
+        }
+
+        decoder.decode(rgbs);
+        System.arraycopy(rgbs, 0, this.rgbs, offset, probeCount);
+        sizes[index] = size;
+        modifiedTimes[index] = modifiedTime;
+        names[index] = name;
+        changed = true;
+    }
+
+    // True if the colors of frame "index" are saved and the frame file has not changed, so it does not need to be read.
+    public boolean isCached(int index, File file) {
+        readAttributes(index, file);
+        checked[index] = true;
+        return file.getName().equals(names[index]) && checkedSizes[index] == sizes[index] && checkedModifiedTimes[index] == modifiedTimes[index];
+    }
+
+    // Reads the size and modification time of frame file "index" with one call to the file system
+    // (File.length and File.lastModified make one each). Both are 0 if the file can not be read, like File.length.
+    private void readAttributes(int index, File file) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+            checkedSizes[index] = attributes.size();
+            checkedModifiedTimes[index] = attributes.lastModifiedTime().toMillis();
+        } catch (IOException e) {
+            checkedSizes[index] = 0;
+            checkedModifiedTimes[index] = 0;
+        }
+    }
+
+    // Writes the cache file, if any frame was decoded since it was loaded.
+    // The file is written to a temporary file first, so an interrupted save never leaves a broken cache file.
+    // If the file can not be written (for example in a read-only folder), a warning is printed and the
+    // analysis continues, since the cache is only needed to speed up the next run.
+    public void save() {
+        if (!changed) {
+            return;
+        }
+        File tempFile = new File(cacheFile.getPath() + ".tmp");
+        long start = Profiler.start();
+        try {
+            write(tempFile);
+            Files.move(tempFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Profiler.SAMPLE_CACHE.record(start);
+            changed = false;
+        } catch (IOException e) {
+            System.err.println("Could not save sample cache " + cacheFile + ": " + e.getMessage());
+            tempFile.delete();
+        }
+    }
+
+    private void write(File tempFile) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile), 1 << 16))) {
+            out.write(MAGIC.getBytes(StandardCharsets.US_ASCII));
+            out.writeInt(VERSION);
+            out.writeInt(probeCount);
+            for (int p = 0; p < probeCount; p++) {
+                out.writeInt(probeXs[p]);
+                out.writeInt(probeYs[p]);
+            }
+            out.writeInt(patchWidth);
+            out.writeInt(patchHeight);
+
+            // Only the frames from the start up to the first frame without a saved color are written.
+            int savedFrameCount = 0;
+            while (savedFrameCount < names.length && names[savedFrameCount] != null) {
+                savedFrameCount++;
+            }
+            out.writeInt(savedFrameCount);
+            for (int i = 0; i < savedFrameCount; i++) {
+                out.writeUTF(names[i]);
+                out.writeLong(sizes[i]);
+                out.writeLong(modifiedTimes[i]);
+                for (int p = 0; p < probeCount; p++) {
+                    out.writeInt(rgbs[i * probeCount + p]);
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,15 @@
+import java.io.IOException;
+
+// A FrameSource whose frames can also be read in any order, used by SkippingEngine.
+// Folders with frame files and frame containers are seekable, raw video from a pipe is not.
+public interface SeekableFrameSource extends FrameSource {
+
+    // Reads the frame with the given index (starting at 0) and saves the color of each probe in rgbs,
+    // as a packed RGB int. Does not change which frames read() returns next.
+    void readFrame(int index, int[] rgbs) throws IOException;
+
+    // Frames per second of the recording, or 0 if it is not known (frame folders do not store it).
+    default double getFps() {
+        return 0;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,87 @@
+import java.io.File;
+import java.io.IOException;
+
+// Checks that SkippingEngine finds exactly the same swaps and delays as AnalysisEngine (which reads every frame),
+// with both matching methods and several jump lengths. Unlike "Compare <folder> skip", which prints the
+// differences for one setting, this prints OK, or every difference and exits with status 1.
+
+// To check skipping on the frames in folder data/exampleData, run "SkippingCheck" (after compiling).
+// To check another folder or frame container in the data folder, run "SkippingCheck <name>".
+public class SkippingCheck {
+    public static void main(String[] args) throws IOException {
+
+        // --- SETTINGS, TO BE CHANGED BY USER ---
+        String folderWithFramesName = args.length >= 1 ? args[0] : "exampleData";
+        int[][] skipSettings = {{1, 1}, {8, 16}, {32, 64}, {64, 128}}; // {minSkip, maxSkip}, maxSkip must be shorter than the time between two swaps
+
+        // --- ACTUAL CODE STARTS ---
+        File folder = new File("data/" + folderWithFramesName);
+
+        // Pixel coordinates that we analyze (leftx, lefty) and (rightx, righty)
+        int leftx = 20;
+        int lefty = 30;
+        int rightx = 120;
+        int righty = 30;
+
+        int errors = 0;
+        for (int[] skipSetting : skipSettings) {
+            // Opened again for every setting, since AnalysisEngine reads the frames from the start
+            try (SeekableFrameSource frames = FrameSources.open(folder, new int[] {leftx, rightx}, new int[] {lefty, righty})) {
+                int minSkip = skipSetting[0];
+                int maxSkip = skipSetting[1];
+                DelayStatistics[] everyFrame = {new DelayStatistics(false), new DelayStatistics(false)};
+                DelayStatistics[] skipping = {new DelayStatistics(false), new DelayStatistics(false)};
+                MatcherComparison indexPairing = new MatcherComparison();
+                MatcherComparison waitForNext = new MatcherComparison();
+
+                int frameCount = AnalysisEngine.run(frames, DelayMatcher.all(
+                    new IndexPairingMatcher(DelayListener.all(everyFrame[0], indexPairing.getFirstListener())),
+                    new WaitForNextMatcher(DelayListener.all(everyFrame[1], waitForNext.getFirstListener()))));
+                SkippingEngine engine = new SkippingEngine(minSkip, maxSkip);
+                int skippingFrameCount = engine.run(frames, DelayMatcher.all(
+                    new IndexPairingMatcher(DelayListener.all(skipping[0], indexPairing.getSecondListener())),
+                    new WaitForNextMatcher(DelayListener.all(skipping[1], waitForNext.getSecondListener()))));
+
+                System.out.println("minSkip " + minSkip + ", maxSkip " + maxSkip + ": read " + engine.getFramesRead() + " of " + frameCount + " frames.");
+                if (skippingFrameCount != frameCount) {
+                    System.out.println("Skipping analyzed " + skippingFrameCount + " frames, reading every frame " + frameCount + ".");
+                    errors++;
+                }
+                errors += check("Main", everyFrame[0], skipping[0], indexPairing);
+                errors += check("WaitForNext", everyFrame[1], skipping[1], waitForNext);
+            }
+        }
+
+        if (errors > 0) {
+            System.out.println(errors + " errors.");
+            System.exit(1);
+        }
+        System.out.println("OK, skipping finds the same swaps and delays as reading every frame.");
+    }
+
+    // Prints every difference between reading every frame and skipping with one method, and returns the amount.
+    static int check(String method, DelayStatistics everyFrame, DelayStatistics skipping, MatcherComparison comparison) {
+        int errors = 0;
+        for (boolean left : new boolean[] {true, false}) {
+            for (boolean white : new boolean[] {true, false}) {
+                if (everyFrame.getSwaps(left, white) != skipping.getSwaps(left, white)) {
+                    System.out.println(method + ": " + (left ? "left" : "right") + " swaps to " + (white ? "white" : "black") + ": "
+                        + everyFrame.getSwaps(left, white) + " reading every frame, " + skipping.getSwaps(left, white) + " skipping.");
+                    errors++;
+                }
+            }
+        }
+        for (boolean white : new boolean[] {true, false}) {
+            if (comparison.getDelayCount(true, white) != comparison.getDelayCount(false, white)) {
+                System.out.println(method + ": " + (white ? "white" : "black") + " delays: " + comparison.getDelayCount(true, white)
+                    + " reading every frame, " + comparison.getDelayCount(false, white) + " skipping.");
+                errors++;
+            }
+        }
+        for (MatcherComparison.Disagreement disagreement : comparison.getDisagreements()) {
+            System.out.println(Compare.describe(method + ", every frame", method + ", skipping", disagreement));
+            errors++;
+        }
+        return errors;
+    }
+}
\ No newline at end of file
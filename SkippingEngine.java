@@ -0,0 +1,92 @@
+import java.io.IOException;
+
+// Analyzes a video without reading every frame. The colors only change a few times per swap (about every
+// third second), so the engine jumps ahead, and only if the colors at the end of the jump differ from the
+// colors before it, it binary searches for the first frame with the new colors. The jumps start at minSkip
+// frames after every change and double up to maxSkip frames. Every color change costs about log2(jump) reads,
+// so with a swap every third second less than a tenth of the frames are read.
+//
+// The frames that are jumped over are given to the DelayMatcher with the colors before the jump, so the
+// matcher sees exactly the same colors as with AnalysisEngine, as long as the colors do not change and then
+// change back within one jump. maxSkip must therefore be shorter than the time between two swaps
+// (180 frames at 60fps if the source switches every third second), and shorter than the shortest glitch
+// that should be detected. "Compare <folder> skip" verifies the result against reading every frame,
+// and SkippingCheck does the same for several jump lengths (exits with status 1 if anything differs).
+public class SkippingEngine {
+    private final int minSkip;
+    private final int maxSkip;
+    private int framesRead = 0;
+
+    public SkippingEngine(int minSkip, int maxSkip) {
+        this.minSkip = Math.max(1, minSkip);
+        this.maxSkip = Math.max(this.minSkip, maxSkip);
+    }
+
+    // Analyzes all frames of the source. Frame numbers start at 1. Returns the amount of frames analyzed.
+    public int run(SeekableFrameSource source, DelayMatcher matcher) throws IOException {
+        int frameCount = source.getFrameCount();
+        if (frameCount <= 0) {
+            return 0;
+        }
+        int[] rgbs = new int[source.getProbeCount()];
+
+        int current = 0; // Index of the last frame given to the matcher
+        int currentColors = readColors(source, 0, rgbs);
+        accept(matcher, 0, currentColors);
+        int skip = minSkip;
+
+        while (current < frameCount - 1) {
+            int target = Math.min(current + skip, frameCount - 1);
+            int targetColors = readColors(source, target, rgbs);
+            if (targetColors == currentColors) {
+                for (int i = current + 1; i <= target; i++) {
+                    accept(matcher, i, currentColors);
+                }
+                current = target;
+                skip = Math.min(skip * 2, maxSkip);
+                continue;
+            }
+
+            // The colors changed somewhere after current, at target at the latest.
+            // Binary search for the first frame with other colors than current.
+            int same = current;
+            int changed = target;
+            int changedColors = targetColors;
+            while (changed - same > 1) {
+                int middle = (same + changed) >>> 1;
+                int middleColors = readColors(source, middle, rgbs);
+                if (middleColors == currentColors) {
+                    same = middle;
+                }
+                else {
+                    changed = middle;
+                    changedColors = middleColors;
+                }
+            }
+            for (int i = current + 1; i <= same; i++) {
+                accept(matcher, i, currentColors);
+            }
+            accept(matcher, changed, changedColors);
+            current = changed;
+            currentColors = changedColors;
+            skip = minSkip;
+        }
+        return frameCount;
+    }
+
+    // Amount of frames that were actually read from the source by run().
+    public int getFramesRead() {
+        return framesRead;
+    }
+
+    // Reads a frame and returns the colors of the left and right pixel, packed as (left << 8) | right.
+    private int readColors(SeekableFrameSource source, int index, int[] rgbs) throws IOException {
+        source.readFrame(index, rgbs);
+        framesRead++;
+        return (PixelClassifier.classify(rgbs[0]) << 8) | PixelClassifier.classify(rgbs[1]);
+    }
+
+    private static void accept(DelayMatcher matcher, int index, int colors) {
+        matcher.accept(index + 1, (byte) (colors >> 8), (byte) colors);
+    }
+}
\ No newline at end of file
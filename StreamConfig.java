@@ -0,0 +1,135 @@
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Properties;
+
+// Named streams (parts of the video, each with its own pixel) to compare in one recording, read from a
+// properties file. One stream is the reference (for example the source that switches between black and white),
+// and the delay of every other stream is measured against the reference. Example, with a reference and two
+// apps tiled next to each other:
+//
+//   streams = source, zoom, qtox
+//   reference = source
+//   source = 20, 30
+//   zoom = 120, 30
+//   qtox = 220, 30
+//   # Optional, default 1x1 and 60
+//   patch = 3x3
+//   fps = 60
+//
+// If "reference" is left out, the first stream is the reference.
+public class StreamConfig {
+    private final String[] names;
+    private final int[] xs;
+    private final int[] ys;
+    private final int referenceIndex;
+    private final int patchWidth;
+    private final int patchHeight;
+    private final double fps;
+
+    private StreamConfig(String[] names, int[] xs, int[] ys, int referenceIndex, int patchWidth, int patchHeight, double fps) {
+        this.names = names;
+        this.xs = xs;
+        this.ys = ys;
+        this.referenceIndex = referenceIndex;
+        this.patchWidth = patchWidth;
+        this.patchHeight = patchHeight;
+        this.fps = fps;
+    }
+
+    public static StreamConfig load(File file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = new FileReader(file)) {
+            properties.load(reader);
+        }
+
+        String streams = properties.getProperty("streams");
+        if (streams == null) {
+            throw new IOException(file + ": \"streams\" is missing");
+        }
+        String[] names = streams.trim().split("\\s*,\\s*");
+        if (names.length < 2) {
+            throw new IOException(file + ": at least two streams are needed, a reference and a stream to compare with it");
+        }
+
+        int[] xs = new int[names.length];
+        int[] ys = new int[names.length];
+        for (int i = 0; i < names.length; i++) {
+            int[] pixel = parsePair(file, names[i], properties.getProperty(names[i]), ",");
+            xs[i] = pixel[0];
+            ys[i] = pixel[1];
+        }
+
+        int referenceIndex = 0;
+        String reference = properties.getProperty("reference");
+        if (reference != null) {
+            referenceIndex = -1;
+            for (int i = 0; i < names.length; i++) {
+                if (names[i].equals(reference.trim())) {
+                    referenceIndex = i;
+                }
+            }
+            if (referenceIndex < 0) {
+                throw new IOException(file + ": the reference \"" + reference.trim() + "\" is not one of the streams");
+            }
+        }
+
+        int[] patch = parsePair(file, "patch", properties.getProperty("patch", "1x1"), "x");
+        double fps;
+        try {
+            fps = Double.parseDouble(properties.getProperty("fps", "60").trim());
+        } catch (NumberFormatException e) {
+            throw new IOException(file + ": fps must be a number");
+        }
+        return new StreamConfig(names, xs, ys, referenceIndex, patch[0], patch[1], fps);
+    }
+
+    // Parses two ints separated by separator, for example "20, 30" or "3x3".
+    private static int[] parsePair(File file, String key, String value, String separator) throws IOException {
+        if (value == null) {
+            throw new IOException(file + ": \"" + key + "\" is missing");
+        }
+        String[] parts = value.split(separator);
+        try {
+            if (parts.length == 2) {
+                return new int[] {Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim())};
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IOException(file + ": \"" + key + "\" must be two numbers separated by \"" + separator + "\", was \"" + value + "\"");
+    }
+
+    public int getStreamCount() {
+        return names.length;
+    }
+
+    public String getName(int stream) {
+        return names[stream];
+    }
+
+    public int[] getXs() {
+        return xs.clone();
+    }
+
+    public int[] getYs() {
+        return ys.clone();
+    }
+
+    public int getReferenceIndex() {
+        return referenceIndex;
+    }
+
+    public int getPatchWidth() {
+        return patchWidth;
+    }
+
+    public int getPatchHeight() {
+        return patchHeight;
+    }
+
+    public double getFps() {
+        return fps;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,114 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+// Measures the delays with sub-frame precision (see SubFrameMatcher). Frames captured in the middle of a swap
+// are used to interpolate when each video crossed the middle between black and white, so the delays are not
+// rounded to whole frames. This makes it possible to record in a lower fps (less data, faster processing)
+// and still measure the delays precisely.
+// Each side is judged from the average luminance of a small patch around the pixel, which is less sensitive to
+// JPEG artifacts than a single pixel.
+
+// To analyze frames in folder data/exampleData (recorded in 60fps), run "SubFrame exampleData" (after compiling).
+// For a video recorded in another fps, for example 30fps, run "SubFrame exampleData 30"
+public class SubFrame {
+    public static void main(String[] args) throws IOException {
+
+        // --- SETTINGS, TO BE CHANGED BY USER ---
+        int patchWidth = 3;  // Size of the patch around each pixel whose average color is used
+        int patchHeight = 3;
+        boolean printDelays = true; // If true, prints every delay as soon as it is measured
+
+        // First command line option
+        String folderWithFramesName = args[0]; // This folder must be located inside the data folder, and should contains frames from video (or be a frame container)
+
+        // Set by command line's optional second argument.
+        double fps = args.length >= 2 ? Double.parseDouble(args[1]) : 60;
+
+        // --- ACTUAL CODE STARTS ---
+        String path = "data/" + folderWithFramesName;
+        File folder = new File(path);
+        double milliSecondsPerFrame = 1000 / fps;
+
+        // Pixel coordinates that we analyze (leftx, lefty) and (rightx, righty)
+        int leftx = 20;
+        int lefty = 30;
+        int rightx = 120;
+        int righty = 30;
+
+        int frameCount;
+        SubFrameDelays delays = new SubFrameDelays(printDelays, milliSecondsPerFrame);
+        SubFrameMatcher matcher = new SubFrameMatcher(delays);
+        try (FrameSource frames = FrameSources.open(folder, new int[] {leftx, rightx}, new int[] {lefty, righty}, patchWidth, patchHeight)) {
+            System.out.println("Processing " + frames.getFrameCount() + " files...");
+            frameCount = AnalysisEngine.runProbes(frames, (frame, rgbs, offset) -> {
+                matcher.accept(frame, PixelClassifier.luminance(rgbs[offset]), PixelClassifier.luminance(rgbs[offset + 1]));
+            });
+        }
+
+        double[] sorted = delays.getSortedDelays();
+        System.out.println("");
+        System.out.println("--------------------------");
+        System.out.println("@@@ SUMMARY ALL DELAYS (SUB-FRAME) @@@");
+        System.out.println("");
+        System.out.println("File name: " + folderWithFramesName);
+        System.out.println("Total frames analyzed: " + frameCount);
+        System.out.println("Delays detected: " + sorted.length + " (white: " + delays.getWhiteCount() + ", black: " + (sorted.length - delays.getWhiteCount()) + ")");
+        if (sorted.length == 0) {
+            return;
+        }
+        double median = sorted.length % 2 == 0 ? (sorted[sorted.length / 2 - 1] + sorted[sorted.length / 2]) / 2 : sorted[sorted.length / 2];
+        System.out.println(String.format("Lowest delay: %.1fms = %.2f frames", sorted[0] * milliSecondsPerFrame, sorted[0]));
+        System.out.println(String.format("Highest delay: %.1fms = %.2f frames", sorted[sorted.length - 1] * milliSecondsPerFrame, sorted[sorted.length - 1]));
+        System.out.println(String.format("Average delay: %.1fms = %.2f frames", delays.getAverage() * milliSecondsPerFrame, delays.getAverage()));
+        System.out.println(String.format("Median delay: %.1fms = %.2f frames", median * milliSecondsPerFrame, median));
+    }
+
+    // Saves (and optionally prints) the delays measured by a SubFrameMatcher.
+    static class SubFrameDelays implements SubFrameMatcher.Listener {
+        private final boolean print;
+        private final double milliSecondsPerFrame;
+        private double[] delays = new double[16];
+        private int count = 0;
+        private int whiteCount = 0;
+
+        SubFrameDelays(boolean print, double milliSecondsPerFrame) {
+            this.print = print;
+            this.milliSecondsPerFrame = milliSecondsPerFrame;
+        }
+
+        @Override
+        public void delayMeasured(boolean white, int swapNum, double crossingLeft, double crossingRight) {
+            double delay = crossingRight - crossingLeft;
+            if (count == delays.length) {
+                delays = Arrays.copyOf(delays, count * 2);
+            }
+            delays[count++] = delay;
+            if (white) {
+                whiteCount++;
+            }
+            if (print) {
+                System.out.println(String.format("%s delay # %d: %.1fms = %.2f frames, left crossed at %.2f, right at %.2f",
+                    white ? "White" : "Black", swapNum, delay * milliSecondsPerFrame, delay, crossingLeft, crossingRight));
+            }
+        }
+
+        int getWhiteCount() {
+            return whiteCount;
+        }
+
+        double getAverage() {
+            double sum = 0;
+            for (int i = 0; i < count; i++) {
+                sum += delays[i];
+            }
+            return sum / count;
+        }
+
+        double[] getSortedDelays() {
+            double[] sorted = Arrays.copyOf(delays, count);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,107 @@
+// Estimates delays with sub-frame precision from the luminance of the left and right video.
+// A frame is often captured in the middle of a swap, with a luminance between black and white. Instead of
+// ignoring such frames, the time the luminance crossed MIDDLE is interpolated linearly between the last frame
+// before and the first frame after the crossing. For example, luminance 35 in frame 10 and 235 in frame 11 gives
+// a crossing at frame 10.5, and luminance 35, 185, 235 in frames 10, 11, 12 gives a crossing at frame 10.67.
+// Crossings are paired like in IndexPairingMatcher: the n:th upwards crossing on the left with the n:th upwards
+// crossing on the right (and the same downwards).
+// So that noise around MIDDLE is not counted as swaps, a video must have been dark (below DARK) before an upwards
+// crossing is counted, and bright (above BRIGHT) before a downwards crossing is counted.
+public class SubFrameMatcher {
+    static final double DARK = PixelClassifier.BLACK_LIMIT;
+    static final double BRIGHT = PixelClassifier.WHITE_LIMIT;
+    static final double MIDDLE = (DARK + BRIGHT) / 2;
+
+    // Receives every delay as soon as both left and right have crossed.
+    public interface Listener {
+        // white is true for swaps from black to white. Crossings are frame numbers with decimals.
+        void delayMeasured(boolean white, int swapNum, double crossingLeft, double crossingRight);
+    }
+
+    private final Listener listener;
+    private final CrossingDetector left = new CrossingDetector();
+    private final CrossingDetector right = new CrossingDetector();
+    private final CrossingPairer whiteCrossings = new CrossingPairer(true);
+    private final CrossingPairer blackCrossings = new CrossingPairer(false);
+
+    public SubFrameMatcher(Listener listener) {
+        this.listener = listener;
+    }
+
+    // Looks at the next frame. Frame numbers start at 1, and luminances are between 0 and 255.
+    public void accept(int frame, double luminanceLeft, double luminanceRight) {
+        double crossingLeft = left.next(frame, luminanceLeft);
+        if (!Double.isNaN(crossingLeft)) {
+            (left.crossedUpwards ? whiteCrossings : blackCrossings).leftCrossed(crossingLeft);
+        }
+        double crossingRight = right.next(frame, luminanceRight);
+        if (!Double.isNaN(crossingRight)) {
+            (right.crossedUpwards ? whiteCrossings : blackCrossings).rightCrossed(crossingRight);
+        }
+    }
+
+    // Finds the crossings of one video.
+    private static class CrossingDetector {
+        private double lastLuminance = Double.NaN;
+        private boolean armedUpwards = false;   // Has been dark since the last crossing
+        private boolean armedDownwards = false; // Has been bright since the last crossing
+        private boolean crossedUpwards;         // Direction of the last crossing
+
+        // Returns the crossing (a frame number with decimals) if the luminance crossed MIDDLE since the
+        // previous frame, and NaN otherwise.
+        double next(int frame, double luminance) {
+            double crossing = Double.NaN;
+            if (armedUpwards && lastLuminance < MIDDLE && luminance >= MIDDLE) {
+                crossing = frame - 1 + (MIDDLE - lastLuminance) / (luminance - lastLuminance);
+                crossedUpwards = true;
+                armedUpwards = false;
+            }
+            else if (armedDownwards && lastLuminance > MIDDLE && luminance <= MIDDLE) {
+                crossing = frame - 1 + (lastLuminance - MIDDLE) / (lastLuminance - luminance);
+                crossedUpwards = false;
+                armedDownwards = false;
+            }
+
+            if (luminance < DARK) {
+                armedUpwards = true;
+            }
+            else if (luminance > BRIGHT) {
+                armedDownwards = true;
+            }
+            lastLuminance = luminance;
+            return crossing;
+        }
+    }
+
+    // Pairs the crossings in one direction on the left with the crossings in the same direction on the right.
+    private class CrossingPairer {
+        private final boolean white;
+        private final DoubleQueue unpairedLeft = new DoubleQueue();
+        private final DoubleQueue unpairedRight = new DoubleQueue();
+        private int pairedCount = 0;
+
+        CrossingPairer(boolean white) {
+            this.white = white;
+        }
+
+        void leftCrossed(double crossing) {
+            if (unpairedRight.isEmpty()) {
+                unpairedLeft.add(crossing);
+            }
+            else {
+                pairedCount++;
+                listener.delayMeasured(white, pairedCount, crossing, unpairedRight.remove());
+            }
+        }
+
+        void rightCrossed(double crossing) {
+            if (unpairedLeft.isEmpty()) {
+                unpairedRight.add(crossing);
+            }
+            else {
+                pairedCount++;
+                listener.delayMeasured(white, pairedCount, unpairedLeft.remove(), crossing);
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,22 @@
+// Detects when one video (left or right) swaps from black to white or from white to black,
+// by comparing the color in each frame with the color in the frame before.
+public class TransitionDetector {
+
+    // Color in the previous frame. OTHER before the first frame, so no swap is detected in the first frame.
+    private byte lastColor = PixelClassifier.OTHER;
+
+    // Looks at the color in the next frame (PixelClassifier.BLACK, WHITE or OTHER).
+    // Returns PixelClassifier.WHITE if the video swapped from black to white, PixelClassifier.BLACK if it
+    // swapped from white to black, and PixelClassifier.OTHER if it did not swap.
+    public byte next(byte color) {
+        byte swap = PixelClassifier.OTHER;
+        if (lastColor == PixelClassifier.BLACK && color == PixelClassifier.WHITE) {
+            swap = PixelClassifier.WHITE;
+        }
+        else if (lastColor == PixelClassifier.WHITE && color == PixelClassifier.BLACK) {
+            swap = PixelClassifier.BLACK;
+        }
+        lastColor = color;
+        return swap;
+    }
+}
\ No newline at end of file
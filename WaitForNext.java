@@ -1,11 +1,5 @@
 import java.io.File;
-import java.awt.Image;
-import java.awt.Color;
-import javax.imageio.ImageIO;
-import java.awt.image.BufferedImage;
-import java.awt.image.PixelGrabber;
-import java.util.ArrayList;
-import java.util.Arrays;
+import java.io.IOException;
 
 // How to fix setup:
 // LEFT video stream = LOWER delay (zoom)
@@ -16,7 +10,7 @@ import java.util.Arrays;
 
 // To analyze frames in folder data/exampleData, run "LeftAndRightIndividually exampleData" (after compiling).
 public class WaitForNext {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
 
         // --- SETTINGS ---
         String folderWithFramesName = args[0]; // This folder must be located inside the data folder, and should contains frames from video
@@ -25,151 +19,69 @@ public class WaitForNext {
 
         // --- ACTUAL CODE STARTS ---
         String path = "data/" + folderWithFramesName;
-        File folder = new File(path);  // Set this to the folder with frame files.
-        File[] listOfFiles = folder.listFiles();
-        ArrayList<Integer> whiteDelays = new ArrayList<Integer>();
-        ArrayList<Integer> blackDelays = new ArrayList<Integer>();
+        File folder = new File(path);  // Set this to the folder with frame files (or a frame container).
 
         // Pixel coordinates that we analyze (leftx, lefty) and (rightx, righty)
         int leftx = 20;
         int lefty = 30;
         int rightx = 120;
         int righty = 30;
-        
-        // Needed to check delay
-        int frameThatLeftBecameWhite = 0;
-        int frameThatLeftBecameBlack = 0;
-
-        // Waiting flags (only one true at a time)
-        boolean waitingForLeftWhite = true;
-        boolean waitingForLeftBlack = false;
-        boolean waitingForRightWhite = false;
-        boolean waitingForRightBlack = false;
-
-        // counters
-        int totalWhiteFrameDelay = 0;
-        int totalBlackFrameDelay = 0;
-        int blackToWhiteCounter = 0;
-        int whiteToBlackCounter = 0;
-
-        // Lowest/highest delay
-        int lowestWhiteDelay = 1000000;
-        int highestWhiteDelay = 0;
-        int lowestBlackDelay = 1000000;
-        int highestBlackDelay = 0;
 
-        // Lowest/highest delay frame numbers. One per each of the above.
-        int frame_lowestWhiteDelay = 0;
-        int frame_highestWhiteDelay = 0;
-        int frame_lowestBlackDelay = 0;
-        int frame_highestBlackDelay = 0;
-
-        // Each if-statement in the loop only waits for ONE pixel to be a specific color.
-        // When that happens, a new pixel and color is chosen to wait for.
-        for (int frame = 1; frame < listOfFiles.length + 1; frame++) {
-            //println("frame: " + frame);
-    
-            // Load frame and display on canvas (too laggy to actually see though)
-            File file = listOfFiles[frame-1];
-            BufferedImage img = null;
-            try {
-                img = ImageIO.read(file);
-            } catch (Exception e) { }
-        
-            // Extract colors of the two pixels
-            Color colorLeft = getPixelColor(img, leftx, lefty);
-            Color colorRight = getPixelColor(img, rightx, righty);
-        
-            // Left turns white
-            if (waitingForLeftWhite && isWhite(colorLeft)) {
-                frameThatLeftBecameWhite = frame;
-                
-                // Update flags
-                waitingForLeftWhite = false;		
-                waitingForRightWhite = true;
-
-                if (print) {
+        // Patch around each pixel whose average color is used, 1x1 = only the pixel (see FrameSources.open)
+        int patchWidth = 1;
+        int patchHeight = 1;
+
+        // Swaps and delays found in the frames
+        DelayStatistics statistics = new DelayStatistics(true);
+        DelayListener listener = statistics;
+        if (print) {
+            listener = DelayListener.all(statistics, new DelayListener() {
+                @Override
+                public void swapDetected(boolean left, boolean white, int swapNum, int frame) {
+                    if (!left) {
+                        return; // Printed with the delay
+                    }
                     System.out.println("");
-                    System.out.println("frameThatLeftBecameWhite: " + frameThatLeftBecameWhite);
+                    System.out.println("frameThatLeftBecame" + (white ? "White" : "Black") + ": " + frame);
                 }
-            }
-            
-            // Right turns white, after left has turned white
-            else if (waitingForRightWhite && isWhite(colorRight)) {
-                int whiteDelay = frame - frameThatLeftBecameWhite;
 
-                // Update list, total delay and counter
-                whiteDelays.add(whiteDelay);
-                totalWhiteFrameDelay += whiteDelay;
-                blackToWhiteCounter++;
-                
-                // Update lowest/highest delays
-                if (whiteDelay < lowestWhiteDelay) {
-                    lowestWhiteDelay = whiteDelay;
-                    frame_lowestWhiteDelay = frame;
-                }
-                if (whiteDelay > highestWhiteDelay) {
-                    highestWhiteDelay = whiteDelay;
-                    frame_highestWhiteDelay = frame;
+                @Override
+                public void delayMeasured(boolean white, int swapNum, int frameLeft, int frameRight) {
+                    System.out.println("frameThatRightBecame" + (white ? "White" : "Black") + ": " + frameRight);
+                    System.out.println((white ? "whiteDelay: " : "blackDelay: ") + (frameRight - frameLeft));
                 }
-                
-                // Update flags
-                waitingForRightWhite = false;
-                waitingForLeftBlack = true;
-
-                if (print) {
-                    System.out.println("frameThatRightBecameWhite: " + frame);
-                    System.out.println("whiteDelay: " + whiteDelay);
-                }
-            }
-        
-            // Left turns black, after right has turned white
-            else if (waitingForLeftBlack && isBlack(colorLeft)) {
-                frameThatLeftBecameBlack = frame;
-                
-                // Update flags
-                waitingForLeftBlack = false;
-                waitingForRightBlack = true;
-
-                if (print) {
-                    System.out.println("");
-                    System.out.println("frameThatLeftBecameBlack: " + frameThatLeftBecameBlack);
-                }
-            }
-            
-            // Right turns black, after left has turned black
-            else if (waitingForRightBlack && isBlack(colorRight)) {
-                int blackDelay = frame - frameThatLeftBecameBlack;
-                
-                // Update list, total delay and counter
-                blackDelays.add(blackDelay);
-                totalBlackFrameDelay += blackDelay;
-                whiteToBlackCounter++;
+            });
+        }
 
-                // Update lowest/highest delays
-                if (blackDelay < lowestBlackDelay) {
-                    lowestBlackDelay = blackDelay;
-                    frame_lowestBlackDelay = frame;
-                }
-                if (blackDelay > highestBlackDelay) {
-                    highestBlackDelay = blackDelay;
-                    frame_highestBlackDelay = frame;
-                }
+        // The frames are read the same way as in Main (see FrameSources), and the delays are found by
+        // waiting for left and right to turn white and black in turn (see WaitForNextMatcher).
+        try (FrameSource frames = FrameSources.open(folder, new int[] {leftx, rightx}, new int[] {lefty, righty}, patchWidth, patchHeight)) {
+            AnalysisEngine.run(frames, new WaitForNextMatcher(listener));
+        }
 
-                // Update flags
-                waitingForRightBlack = false;
-                waitingForLeftWhite = true;
+        DelayStatistics.DelaySet white = statistics.getWhiteDelays();
+        DelayStatistics.DelaySet black = statistics.getBlackDelays();
+        DelayHistogram whiteHistogram = white.getHistogram();
+        DelayHistogram blackHistogram = black.getHistogram();
+        IntList allDelays = statistics.getAllDelays().getDelays(); // White delays followed by black delays
 
-                if (print) {
-                    System.out.println("frameThatRightBecameBlack: " + frame);
-                    System.out.println("blackDelay: " + blackDelay);
-                }
-            }
-        }
+        // counters
+        long totalWhiteFrameDelay = whiteHistogram.getSum();
+        long totalBlackFrameDelay = blackHistogram.getSum();
+        int blackToWhiteCounter = white.getCount();
+        int whiteToBlackCounter = black.getCount();
 
-        // Add white and black delays to allDelays
-        ArrayList<Integer> allDelays = new ArrayList<Integer>(whiteDelays);
-        allDelays.addAll(blackDelays);
+        // Lowest/highest delay
+        int lowestWhiteDelay = white.getLowest();
+        int highestWhiteDelay = white.getHighest();
+        int lowestBlackDelay = black.getLowest();
+        int highestBlackDelay = black.getHighest();
+
+        // Lowest/highest delay frame numbers (the frame that right turned white/black). One per each of the above.
+        int frame_lowestWhiteDelay = white.getLastFrameOfLowest();
+        int frame_highestWhiteDelay = white.getLastFrameOfHighest();
+        int frame_lowestBlackDelay = black.getLastFrameOfLowest();
+        int frame_highestBlackDelay = black.getLastFrameOfHighest();
         
         double averageWhiteFrameDelay = (double) totalWhiteFrameDelay / blackToWhiteCounter;
         int averageWhiteMilliSecDelay = (int) (averageWhiteFrameDelay * 16.6666); // Remember to record in 60fps.
@@ -182,16 +94,14 @@ public class WaitForNext {
         int highestBlackMilliSecDelay = (int) (highestBlackDelay * 16.6666);
 
         // All delays: median
-        double medianFrameDelay = (double) getMedian(allDelays);
+        double medianFrameDelay = statistics.getAllDelays().getMedian();
         int medianMilliSecDelay = (int) (medianFrameDelay * 16.6666);
 
 
         System.out.println ("");
         System.out.println ("### ALL DELAYS SORTED ###");
         System.out.println ("");
-        Integer[] allDelaysArray = new Integer[allDelays.size()];
-        allDelaysArray = allDelays.toArray(allDelaysArray);
-        Arrays.sort(allDelaysArray);
+        int[] allDelaysArray = allDelays.toSortedArray();
         for (int i = 0; i < allDelaysArray.length; i++) {
             int delayInFrames = allDelaysArray[i];
             int delayInMilliSeconds = (int) (delayInFrames * 16.6666);
@@ -228,94 +138,20 @@ public class WaitForNext {
             System.out.println("--- AVERAGE: white delay ---");
             System.out.println("Average frame delay: " + averageWhiteFrameDelay);
             System.out.println("Average ms delay: " + averageWhiteMilliSecDelay);
-            System.out.println(pctWithinPctRangeOfAverage(whiteDelays, 0.75, 1.25) + "% of delays were within 25% of average.");
-            System.out.println(pctWithinPctRangeOfAverage(whiteDelays, 0.5, 1.5) + "% of delays were within 50% of average.");
-            System.out.println(pctWithinPctRangeOfAverage(whiteDelays, 0.2, 1.8) + "% of delays were within 80% of average.");
+            System.out.println(Main.pctWithinPctRangeOfValue(whiteHistogram, averageWhiteFrameDelay, 0.75, 1.25) + "% of delays were within 25% of average.");
+            System.out.println(Main.pctWithinPctRangeOfValue(whiteHistogram, averageWhiteFrameDelay, 0.5, 1.5) + "% of delays were within 50% of average.");
+            System.out.println(Main.pctWithinPctRangeOfValue(whiteHistogram, averageWhiteFrameDelay, 0.2, 1.8) + "% of delays were within 80% of average.");
 
             System.out.println("");
             System.out.println("--- AVERAGE: black delay ---");
             System.out.println("Average frame delay: " + averageBlackFrameDelay);
             System.out.println("Average ms delay: " + averageBlackMilliSecDelay);
-            System.out.println(pctWithinPctRangeOfAverage(blackDelays, 0.75, 1.25) + "% of delays were within 25% of average.");
-            System.out.println(pctWithinPctRangeOfAverage(blackDelays, 0.5, 1.5) + "% of delays were within 50% of average.");
-            System.out.println(pctWithinPctRangeOfAverage(blackDelays, 0.2, 1.8) + "% of delays were within 80% of average.");
+            System.out.println(Main.pctWithinPctRangeOfValue(blackHistogram, averageBlackFrameDelay, 0.75, 1.25) + "% of delays were within 25% of average.");
+            System.out.println(Main.pctWithinPctRangeOfValue(blackHistogram, averageBlackFrameDelay, 0.5, 1.5) + "% of delays were within 50% of average.");
+            System.out.println(Main.pctWithinPctRangeOfValue(blackHistogram, averageBlackFrameDelay, 0.2, 1.8) + "% of delays were within 80% of average.");
         }
         
         System.out.println("--- MEDIAN: all delays ---");
         System.out.println(medianMilliSecDelay + " ms");
     }
-
-    // Returns the percentage amount (an int between 0 and 100) of the list values that are within 
-    // a certain percentage of the list average.
-    // Example: pctWithinPctRangeOfAverage(list, 0.5, 1.5) gives percentage amount of 
-    // values in list that are between 50% and 150% of the average value.
-    static int pctWithinPctRangeOfAverage(ArrayList<Integer> list, double lower, double upper) {
-        int countWithinRange = 0;
-        double average = getAverage(list);
-        for (int i = 0; i < list.size(); i++) {
-            if (list.get(i) >= lower * average && list.get(i) <= upper * average) {
-                countWithinRange++;
-            }
-        }
-        double pctWithinRange = (double) countWithinRange / (double) list.size();
-        return (int) (((double) 100) * pctWithinRange);
-    }
-
-    // Could speed things up by only checking red (less reliable, but probably fine).
-    static boolean isBlack(Color c) {
-        return c.getRed() < 40 && c.getGreen() < 40 && c.getBlue() < 40;
-    }
-    
-    static boolean isWhite(Color c) {
-        return c.getRed() > 230 && c.getGreen() > 230 && c.getBlue() > 230;
-    }
-
-    static double getAverage(ArrayList<Integer> list) {
-        return (double) getSum(list) / list.size();
-    }  
-
-    static int getSum(ArrayList<Integer> list) {
-        int sum = 0; 
-        for (int i = 0; i < list.size(); i++) {
-            sum += list.get(i);
-        }
-        return sum;
-    }    
-
-    // Part of this function was made by stackoverflow user Mike B.
-    // Function copied from https://stackoverflow.com/questions/11955728/how-to-calculate-the-median-of-an-array/28822243
-    static double getMedian(ArrayList<Integer> list) {
-        Integer[] numArray = new Integer[list.size()];
-        numArray = list.toArray(numArray);
-        Arrays.sort(numArray);
-
-        double median;
-        if (numArray.length % 2 == 0)
-            median = ((double)numArray[numArray.length/2] + (double)numArray[numArray.length/2 - 1])/2;
-        else
-            median = (double) numArray[numArray.length/2];
-        return median;
-    }
-
-    // Basic function copied from stackoverflow: 
-    // https://stackoverflow.com/questions/47500296/how-to-get-the-color-of-a-specific-pixel-of-an-image-java
-    private static Color getPixelColor(Image image, int x, int y) {
-        if (image instanceof BufferedImage) {
-            return new Color(((BufferedImage) image).getRGB(x, y));
-        }
-        int width = image.getWidth(null);
-        int height = image.getHeight(null);
-        int[] pixels = new int[width * height];
-        PixelGrabber grabber = new PixelGrabber(image, 0, 0, width, height, pixels, 0, width);
-        try {
-            grabber.grabPixels();
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        }
-        int c = pixels[x * width + y];
-        int  red = (c & 0x00ff0000) >> 16;
-        int  green = (c & 0x0000ff00) >> 8;
-        int  blue = c & 0x000000ff;
-        return new Color(red, green, blue);
-    }
 }
\ No newline at end of file
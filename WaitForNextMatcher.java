@@ -0,0 +1,67 @@
+// Finds delays the way WaitForNext does: after the left video has turned white, wait for the right video
+// to turn white as well, then wait for left to turn black, then for right to turn black, and so on.
+// This works even if one delay is longer than the time between two color swaps, where the
+// IndexPairingMatcher would pair the wrong swaps with each other after the missed swap.
+// Turning white/black means being white/black in a frame, no swap from the other color is needed.
+// Every turn is reported as a swap to the listener (left or right), so the swaps can be counted for both sides.
+public class WaitForNextMatcher implements DelayMatcher {
+    private final DelayListener listener;
+
+    // Waiting flags (only one true at a time)
+    private boolean waitingForLeftWhite = true;
+    private boolean waitingForLeftBlack = false;
+    private boolean waitingForRightWhite = false;
+    private boolean waitingForRightBlack = false;
+
+    // Needed to check delay
+    private int frameThatLeftBecameWhite = 0;
+    private int frameThatLeftBecameBlack = 0;
+
+    // counters
+    private int blackToWhiteCounter = 0;
+    private int whiteToBlackCounter = 0;
+
+    public WaitForNextMatcher(DelayListener listener) {
+        this.listener = listener;
+    }
+
+    // Each if-statement only waits for ONE pixel to be a specific color.
+    // When that happens, a new pixel and color is chosen to wait for.
+    @Override
+    public void accept(int frame, byte colorLeft, byte colorRight) {
+
+        // Left turns white
+        if (waitingForLeftWhite && colorLeft == PixelClassifier.WHITE) {
+            frameThatLeftBecameWhite = frame;
+            waitingForLeftWhite = false;
+            waitingForRightWhite = true;
+            listener.swapDetected(true, true, blackToWhiteCounter + 1, frame);
+        }
+
+        // Right turns white, after left has turned white
+        else if (waitingForRightWhite && colorRight == PixelClassifier.WHITE) {
+            blackToWhiteCounter++;
+            waitingForRightWhite = false;
+            waitingForLeftBlack = true;
+            listener.swapDetected(false, true, blackToWhiteCounter, frame);
+            listener.delayMeasured(true, blackToWhiteCounter, frameThatLeftBecameWhite, frame);
+        }
+
+        // Left turns black, after right has turned white
+        else if (waitingForLeftBlack && colorLeft == PixelClassifier.BLACK) {
+            frameThatLeftBecameBlack = frame;
+            waitingForLeftBlack = false;
+            waitingForRightBlack = true;
+            listener.swapDetected(true, false, whiteToBlackCounter + 1, frame);
+        }
+
+        // Right turns black, after left has turned black
+        else if (waitingForRightBlack && colorRight == PixelClassifier.BLACK) {
+            whiteToBlackCounter++;
+            waitingForRightBlack = false;
+            waitingForLeftWhite = true;
+            listener.swapDetected(false, false, whiteToBlackCounter, frame);
+            listener.delayMeasured(false, whiteToBlackCounter, frameThatLeftBecameBlack, frame);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,66 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Analyzes the frames in a folder while they are being recorded, and prints statistics of the delays
+// every few seconds, so a bad run (wrong pixel coordinates, a frozen stream, missed swaps) can be stopped
+// right away instead of after the recording. Frames are analyzed the same way as "Main <folder> stream".
+// When no new frame has been written for stopAfterIdleSeconds, the recording is considered done,
+// and a summary of all delays is printed.
+
+// Start the recorder so it writes numbered frames to data/zoom_1, for example with
+//   ffmpeg -f x11grab -framerate 60 -video_size 148x74 -i :0.0 "data/zoom_1/zoom_1 %05d.jpg"
+// and run "Watch zoom_1" (after compiling).
+// The folder is created if it does not exist yet, so Watch can be started before the recorder.
+public class Watch {
+    public static void main(String[] args) throws IOException {
+
+        // --- SETTINGS, TO BE CHANGED BY USER ---
+        int printEverySeconds = 5; // How often the statistics are printed
+        int recentDelayCount = 20; // The "Last" statistics are for this amount of most recent delays
+        int warnAfterFramesWithoutSwap = 600; // Warn if nothing swapped for this long (10 seconds at 60fps)
+        int stopAfterIdleSeconds = 30; // Stop when no new frame has been written for this long
+        int settleMillis = 500; // The newest frame is only read once it is this old, or when a newer frame exists
+
+        // First command line option
+        String folderWithFramesName = args[0]; // This folder must be located inside the data folder
+
+        // --- ACTUAL CODE STARTS ---
+        File folder = new File("data/" + folderWithFramesName);
+        folder.mkdirs();
+
+        // Pixel coordinates that we analyze (leftx, lefty) and (rightx, righty)
+        int leftx = 20;
+        int lefty = 30;
+        int rightx = 120;
+        int righty = 30;
+
+        // Patch around each pixel whose average color is used, 1x1 = only the pixel (see FrameSources.open)
+        int patchWidth = 1;
+        int patchHeight = 1;
+
+        DelayStatistics statistics = new DelayStatistics(false);
+        RollingStatistics rolling = new RollingStatistics(statistics, recentDelayCount);
+        DelayListener listener = DelayListener.all(rolling, Main.printingDelayListener(16.6666));
+
+        System.out.println("Watching " + folder + ", stops " + stopAfterIdleSeconds + " seconds after the last frame is written.");
+        ScheduledExecutorService printer = Executors.newSingleThreadScheduledExecutor();
+        printer.scheduleAtFixedRate(() -> rolling.print(16.6666, warnAfterFramesWithoutSwap), printEverySeconds, printEverySeconds, TimeUnit.SECONDS);
+
+        int framesAnalyzed;
+        int missingFrames;
+        try (FolderWatcher frames = new FolderWatcher(folder, new int[] {leftx, rightx}, new int[] {lefty, righty}, patchWidth, patchHeight, settleMillis, TimeUnit.SECONDS.toMillis(stopAfterIdleSeconds))) {
+            framesAnalyzed = AnalysisEngine.run(frames, rolling.counting(new IndexPairingMatcher(listener)));
+            missingFrames = frames.getMissingFrames();
+        } finally {
+            printer.shutdownNow();
+        }
+
+        if (missingFrames > 0) {
+            System.err.println("Warning: " + missingFrames + " frame numbers are missing, delays might be inaccurate.");
+        }
+        Main.printStreamingSummary(folderWithFramesName, framesAnalyzed, statistics, 16.6666);
+    }
+}
\ No newline at end of file
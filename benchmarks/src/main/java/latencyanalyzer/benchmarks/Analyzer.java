@@ -0,0 +1,227 @@
+package latencyanalyzer.benchmarks;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+// Calls the analyzer classes (FrameDecoder, FrameSampler, ...) from the benchmarks.
+// The analyzer classes are in the default package, and classes in a package (JMH does not allow benchmarks
+// in the default package) can not refer to them directly. So they are looked up once by name, and called
+// through static final method handles, which the JIT compiler inlines just like direct calls.
+// Objects of the analyzer classes are passed around as Object.
+final class Analyzer {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.publicLookup();
+
+    private static final MethodHandle NEW_FRAME_DECODER = constructor("FrameDecoder");
+    private static final MethodHandle DECODE = method("FrameDecoder", "decode", BufferedImage.class, File.class, Rectangle.class);
+    private static final MethodHandle NEW_FRAME_SAMPLER = constructor("FrameSampler", int[].class, int[].class);
+    private static final MethodHandle SAMPLE = method("FrameSampler", "sample", void.class, File.class, int[].class);
+    private static final MethodHandle CLASSIFY = staticMethod("PixelClassifier", "classify", byte.class, int.class);
+    private static final MethodHandle NEW_DELAY_STATISTICS = constructor("DelayStatistics", boolean.class);
+    private static final MethodHandle NEW_INDEX_PAIRING_MATCHER = constructor("IndexPairingMatcher", load("DelayListener"));
+    private static final MethodHandle NEW_WAIT_FOR_NEXT_MATCHER = constructor("WaitForNextMatcher", load("DelayListener"));
+    private static final MethodHandle ACCEPT = method("DelayMatcher", "accept", void.class, int.class, byte.class, byte.class);
+    private static final MethodHandle NEW_DELAY_HISTOGRAM = constructor("DelayHistogram");
+    private static final MethodHandle RECORD = method("DelayHistogram", "record", void.class, int.class);
+    private static final MethodHandle GET_MEDIAN = method("DelayHistogram", "getMedian", double.class);
+    private static final MethodHandle GET_PERCENTILE = method("DelayHistogram", "getPercentile", int.class, double.class);
+    private static final MethodHandle GET_FRACTION_WITHIN = method("DelayHistogram", "getFractionWithin", double.class, double.class, double.class, double.class);
+    private static final MethodHandle SCAN_FOLDER = staticMethod("FrameFolder", "scan", load("FrameFolder"), File.class);
+    private static final MethodHandle GET_FILES = method("FrameFolder", "getFiles", File[].class);
+
+    private Analyzer() {
+    }
+
+    static Object newFrameDecoder() {
+        try {
+            return (Object) NEW_FRAME_DECODER.invokeExact();
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static BufferedImage decode(Object decoder, File file, Rectangle region) throws IOException {
+        try {
+            return (BufferedImage) DECODE.invokeExact(decoder, file, region);
+        } catch (IOException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static Object newFrameSampler(int[] probeXs, int[] probeYs) {
+        try {
+            return (Object) NEW_FRAME_SAMPLER.invokeExact(probeXs, probeYs);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static void sample(Object sampler, File file, int[] rgbs) throws IOException {
+        try {
+            SAMPLE.invokeExact(sampler, file, rgbs);
+        } catch (IOException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static byte classify(int rgb) {
+        try {
+            return (byte) CLASSIFY.invokeExact(rgb);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    // A DelayStatistics, which is also a DelayListener.
+    static Object newDelayStatistics(boolean keepDelays) {
+        try {
+            return (Object) NEW_DELAY_STATISTICS.invokeExact(keepDelays);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static Object newIndexPairingMatcher(Object listener) {
+        try {
+            return (Object) NEW_INDEX_PAIRING_MATCHER.invokeExact(listener);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static Object newWaitForNextMatcher(Object listener) {
+        try {
+            return (Object) NEW_WAIT_FOR_NEXT_MATCHER.invokeExact(listener);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static void accept(Object matcher, int frame, byte colorLeft, byte colorRight) {
+        try {
+            ACCEPT.invokeExact(matcher, frame, colorLeft, colorRight);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static Object newDelayHistogram() {
+        try {
+            return (Object) NEW_DELAY_HISTOGRAM.invokeExact();
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static void record(Object histogram, int delay) {
+        try {
+            RECORD.invokeExact(histogram, delay);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static double getMedian(Object histogram) {
+        try {
+            return (double) GET_MEDIAN.invokeExact(histogram);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static int getPercentile(Object histogram, double fraction) {
+        try {
+            return (int) GET_PERCENTILE.invokeExact(histogram, fraction);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static double getFractionWithin(Object histogram, double value, double lower, double upper) {
+        try {
+            return (double) GET_FRACTION_WITHIN.invokeExact(histogram, value, lower, upper);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    // The frame files in a folder, sorted by frame number (see FrameFolder).
+    static File[] frameFiles(File folder) throws IOException {
+        try {
+            return (File[]) GET_FILES.invokeExact((Object) SCAN_FOLDER.invokeExact(folder));
+        } catch (IOException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    private static Class<?> load(String name) {
+        try {
+            return Class.forName(name);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Analyzer class " + name + " is not on the class path", e);
+        }
+    }
+
+    // The method handles are adapted to take and return Object instead of the analyzer classes,
+    // so they can be called with invokeExact.
+    private static MethodHandle constructor(String className, Class<?>... parameterTypes) {
+        try {
+            MethodHandle handle = LOOKUP.findConstructor(load(className), MethodType.methodType(void.class, parameterTypes));
+            return handle.asType(eraseAnalyzerTypes(handle.type()));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Analyzer class " + className + " has no such constructor", e);
+        }
+    }
+
+    private static MethodHandle method(String className, String name, Class<?> returnType, Class<?>... parameterTypes) {
+        try {
+            MethodHandle handle = LOOKUP.findVirtual(load(className), name, MethodType.methodType(returnType, parameterTypes));
+            return handle.asType(eraseAnalyzerTypes(handle.type()));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Analyzer class " + className + " has no method " + name, e);
+        }
+    }
+
+    private static MethodHandle staticMethod(String className, String name, Class<?> returnType, Class<?>... parameterTypes) {
+        try {
+            MethodHandle handle = LOOKUP.findStatic(load(className), name, MethodType.methodType(returnType, parameterTypes));
+            return handle.asType(eraseAnalyzerTypes(handle.type()));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Analyzer class " + className + " has no method " + name, e);
+        }
+    }
+
+    // Replaces the analyzer classes (in the default package) in a method type with Object.
+    private static MethodType eraseAnalyzerTypes(MethodType type) {
+        for (int i = 0; i < type.parameterCount(); i++) {
+            if (isAnalyzerClass(type.parameterType(i))) {
+                type = type.changeParameterType(i, Object.class);
+            }
+        }
+        return isAnalyzerClass(type.returnType()) ? type.changeReturnType(Object.class) : type;
+    }
+
+    private static boolean isAnalyzerClass(Class<?> type) {
+        return !type.isPrimitive() && !type.isArray() && type.getPackageName().isEmpty();
+    }
+
+    private static RuntimeException rethrow(Throwable e) {
+        if (e instanceof RuntimeException) {
+            return (RuntimeException) e;
+        }
+        if (e instanceof Error) {
+            throw (Error) e;
+        }
+        return new IllegalStateException(e);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,72 @@
+package latencyanalyzer.benchmarks;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import javax.imageio.ImageIO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Classifying one pixel as black, white or other: with a new Color and its getRed/getGreen/getBlue
+// (what the analyzer originally did), and with PixelClassifier.classify on the packed rgb.
+// The pixels are every pixel of the first frames, so the branches see the real mix of black, white and other.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClassifyBenchmark {
+    @Param({Frames.SYNTHETIC, Frames.EXAMPLE_DATA})
+    String frames;
+
+    private int[] pixels;
+    private int next;
+
+    @Setup
+    public void setup() throws IOException {
+        File[] files = Frames.load(frames);
+        int frameCount = Math.min(files.length, 16);
+        BufferedImage first = ImageIO.read(files[0]);
+        int width = first.getWidth();
+        int height = first.getHeight();
+        pixels = new int[frameCount * width * height];
+        for (int i = 0; i < frameCount; i++) {
+            ImageIO.read(files[i]).getRGB(0, 0, width, height, pixels, i * width * height, width);
+        }
+    }
+
+    @Benchmark
+    public byte newColor() {
+        Color c = new Color(nextPixel());
+        if (c.getRed() < 40 && c.getGreen() < 40 && c.getBlue() < 40) {
+            return 0;
+        }
+        else if (c.getRed() > 230 && c.getGreen() > 230 && c.getBlue() > 230) {
+            return 1;
+        }
+        return 2;
+    }
+
+    @Benchmark
+    public byte pixelClassifier() {
+        return Analyzer.classify(nextPixel());
+    }
+
+    private int nextPixel() {
+        int pixel = pixels[next];
+        next = next + 1 == pixels.length ? 0 : next + 1;
+        return pixel;
+    }
+}
\ No newline at end of file
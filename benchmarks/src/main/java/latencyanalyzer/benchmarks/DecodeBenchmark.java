@@ -0,0 +1,56 @@
+package latencyanalyzer.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import javax.imageio.ImageIO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Decoding one whole frame, with ImageIO.read and with FrameDecoder (which reuses its reader and buffers).
+// Every call decodes the next frame, so the file cache and branch predictor do not see the same frame twice in a row.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DecodeBenchmark {
+    @Param({Frames.SYNTHETIC, Frames.EXAMPLE_DATA})
+    String frames;
+
+    private File[] files;
+    private Object decoder;
+    private int next;
+
+    @Setup
+    public void setup() throws IOException {
+        files = Frames.load(frames);
+        decoder = Analyzer.newFrameDecoder();
+    }
+
+    @Benchmark
+    public int imageIoRead() throws IOException {
+        return ImageIO.read(nextFile()).getRGB(Frames.LEFT_X, Frames.LEFT_Y);
+    }
+
+    @Benchmark
+    public int frameDecoder() throws IOException {
+        return Analyzer.decode(decoder, nextFile(), null).getRGB(Frames.LEFT_X, Frames.LEFT_Y);
+    }
+
+    private File nextFile() {
+        File file = files[next];
+        next = next + 1 == files.length ? 0 : next + 1;
+        return file;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,59 @@
+package latencyanalyzer.benchmarks;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import javax.imageio.ImageIO;
+
+// The frames that the benchmarks read, chosen with the "frames" parameter:
+// "synthetic" are 240 generated 148x74 frames (the left half swaps color every 30 frames, the right half follows 5 frames later),
+// "exampleData" are the frames in data/exampleData (the benchmarks can be run from the project folder or the benchmarks folder).
+final class Frames {
+    static final String SYNTHETIC = "synthetic";
+    static final String EXAMPLE_DATA = "exampleData";
+
+    // Pixel coordinates that we analyze (leftx, lefty) and (rightx, righty), the same as in Main
+    static final int LEFT_X = 20;
+    static final int LEFT_Y = 30;
+    static final int RIGHT_X = 120;
+    static final int RIGHT_Y = 30;
+
+    private Frames() {
+    }
+
+    static File[] load(String frames) throws IOException {
+        if (SYNTHETIC.equals(frames)) {
+            return writeSyntheticFrames(240);
+        }
+        for (String folder : new String[] {"data/", "../data/"}) {
+            File candidate = new File(folder + frames);
+            if (candidate.isDirectory()) {
+                return Analyzer.frameFiles(candidate);
+            }
+        }
+        throw new IOException("Found no folder data/" + frames + ", run the benchmarks from the project folder.");
+    }
+
+    // Same frames as Benchmark.writeSyntheticFrames
+    private static File[] writeSyntheticFrames(int count) throws IOException {
+        File folder = Files.createTempDirectory("latency-benchmark").toFile();
+        folder.deleteOnExit();
+        File[] files = new File[count];
+        for (int i = 0; i < count; i++) {
+            BufferedImage img = new BufferedImage(148, 74, BufferedImage.TYPE_3BYTE_BGR);
+            Graphics2D g = img.createGraphics();
+            g.setColor((i / 30) % 2 == 0 ? Color.BLACK : Color.WHITE);
+            g.fillRect(0, 0, 74, 74);
+            g.setColor((Math.max(0, i - 5) / 30) % 2 == 0 ? Color.BLACK : Color.WHITE);
+            g.fillRect(74, 0, 74, 74);
+            g.dispose();
+            files[i] = new File(folder, String.format("synthetic %05d.jpg", i + 1));
+            ImageIO.write(img, "jpg", files[i]);
+            files[i].deleteOnExit();
+        }
+        return files;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,67 @@
+package latencyanalyzer.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Pairing swaps into delays, with both matching methods. Every call matches the colors of a synthetic 16 minute
+// video (60fps) swapping every third second, with right 10-40 frames behind left, and the time is per frame.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MatchBenchmark {
+    static final int FRAME_COUNT = 16 * 60 * 60;
+
+    private final byte[] colorsLeft = new byte[FRAME_COUNT];
+    private final byte[] colorsRight = new byte[FRAME_COUNT];
+
+    @Setup
+    public void setup() {
+        byte black = Analyzer.classify(0x000000);
+        byte white = Analyzer.classify(0xffffff);
+        Random random = new Random(1);
+        int delay = 20;
+        for (int i = 0; i < FRAME_COUNT; i++) {
+            if (i % 180 == 0) {
+                delay = 10 + random.nextInt(30);
+            }
+            colorsLeft[i] = (i / 180) % 2 == 0 ? black : white;
+            colorsRight[i] = (Math.max(0, i - delay) / 180) % 2 == 0 ? black : white;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FRAME_COUNT)
+    public Object indexPairingMatcher() {
+        Object statistics = Analyzer.newDelayStatistics(false);
+        Object matcher = Analyzer.newIndexPairingMatcher(statistics);
+        for (int i = 0; i < FRAME_COUNT; i++) {
+            Analyzer.accept(matcher, i + 1, colorsLeft[i], colorsRight[i]);
+        }
+        return statistics;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FRAME_COUNT)
+    public Object waitForNextMatcher() {
+        Object statistics = Analyzer.newDelayStatistics(false);
+        Object matcher = Analyzer.newWaitForNextMatcher(statistics);
+        for (int i = 0; i < FRAME_COUNT; i++) {
+            Analyzer.accept(matcher, i + 1, colorsLeft[i], colorsRight[i]);
+        }
+        return statistics;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,60 @@
+package latencyanalyzer.benchmarks;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import javax.imageio.ImageIO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Getting the colors of the two analyzed pixels from one frame: decoding the whole frame with ImageIO.read
+// and reading the pixels (what the analyzer originally did), and FrameSampler, which only decodes the rows around the pixels.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SampleBenchmark {
+    @Param({Frames.SYNTHETIC, Frames.EXAMPLE_DATA})
+    String frames;
+
+    private File[] files;
+    private Object sampler;
+    private final int[] rgbs = new int[2];
+    private int next;
+
+    @Setup
+    public void setup() throws IOException {
+        files = Frames.load(frames);
+        sampler = Analyzer.newFrameSampler(new int[] {Frames.LEFT_X, Frames.RIGHT_X}, new int[] {Frames.LEFT_Y, Frames.RIGHT_Y});
+    }
+
+    @Benchmark
+    public int imageIoWholeFrame() throws IOException {
+        BufferedImage img = ImageIO.read(nextFile());
+        return img.getRGB(Frames.LEFT_X, Frames.LEFT_Y) + img.getRGB(Frames.RIGHT_X, Frames.RIGHT_Y);
+    }
+
+    @Benchmark
+    public int frameSampler() throws IOException {
+        Analyzer.sample(sampler, nextFile(), rgbs);
+        return rgbs[0] + rgbs[1];
+    }
+
+    private File nextFile() {
+        File file = files[next];
+        next = next + 1 == files.length ? 0 : next + 1;
+        return file;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,65 @@
+package latencyanalyzer.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Recording delays in a DelayHistogram and reading the summary from it, for the delays of a whole campaign
+// (100 000 delays between 0 and 60 frames). The times of the summaries are for all delays, not per delay.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatisticsBenchmark {
+    static final int DELAY_COUNT = 100000;
+
+    private final int[] delays = new int[DELAY_COUNT];
+    private Object histogram;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(1);
+        histogram = Analyzer.newDelayHistogram();
+        for (int i = 0; i < DELAY_COUNT; i++) {
+            delays[i] = random.nextInt(61);
+            Analyzer.record(histogram, delays[i]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DELAY_COUNT)
+    public Object record() {
+        Object recorded = Analyzer.newDelayHistogram();
+        for (int delay : delays) {
+            Analyzer.record(recorded, delay);
+        }
+        return recorded;
+    }
+
+    @Benchmark
+    public double median() {
+        return Analyzer.getMedian(histogram);
+    }
+
+    @Benchmark
+    public int percentile95() {
+        return Analyzer.getPercentile(histogram, 0.95);
+    }
+
+    @Benchmark
+    public double fractionWithin25Percent() {
+        return Analyzer.getFractionWithin(histogram, 30, 0.75, 1.25);
+    }
+}
\ No newline at end of file